@@ -1,3 +1,5 @@
+/* Baseline schema (version 1), only run by the MySQL image on an empty volume */
+/* Existing databases are baselined at this version, so every later change must be a Flyway migration in cinephobia-webapp/src/main/resources/db/migration */
 CREATE TABLE IF NOT EXISTS triggr(
     id BIGINT NOT NULL AUTO_INCREMENT,
     name VARCHAR(30) NOT NULL UNIQUE,
@@ -0,0 +1,36 @@
+package fr.backendt.cinephobia.configurations;
+
+import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.models.User;
+import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.models.dto.*;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ModelMapperConfig { // Type maps are introspected once at startup, the mappers are then shared between threads
+
+    @Bean
+    public ModelMapper modelMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.createTypeMap(Trigger.class, TriggerDTO.class);
+        mapper.createTypeMap(TriggerDTO.class, Trigger.class);
+        mapper.createTypeMap(User.class, UserResponseDTO.class);
+        mapper.createTypeMap(User.class, ProfileResponseDTO.class);
+        mapper.createTypeMap(UserDTO.class, User.class);
+        mapper.createTypeMap(Warn.class, WarnResponseDTO.class);
+        mapper.createTypeMap(WarnDTO.class, Warn.class);
+        return mapper;
+    }
+
+    @Bean
+    public ModelMapper updateMapper() { // Copies partial updates, null fields are left unchanged
+        ModelMapper mapper = new ModelMapper();
+        mapper.getConfiguration().setSkipNullEnabled(true);
+        mapper.createTypeMap(Trigger.class, Trigger.class);
+        mapper.createTypeMap(User.class, User.class);
+        return mapper;
+    }
+
+}
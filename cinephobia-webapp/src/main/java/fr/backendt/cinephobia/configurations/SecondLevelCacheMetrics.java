@@ -0,0 +1,36 @@
+package fr.backendt.cinephobia.configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder { // Hit and miss counts of the cache regions, kept by Caffeine rather than Hibernate statistics
+
+    private final RegionFactory regionFactory;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) { // Built first, so every region already has its cache
+        this.regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if(!(regionFactory instanceof JCacheRegionFactory jCacheRegionFactory)) return;
+
+        CacheManager cacheManager = jCacheRegionFactory.getCacheManager(); // Its caches record statistics, see application.conf
+        for(String cacheName : cacheManager.getCacheNames()) {
+            new JCacheMetrics<>(cacheManager.getCache(cacheName), Tags.of("cache.kind", "hibernate-second-level"))
+                    .bindTo(registry);
+        }
+    }
+}
@@ -4,9 +4,13 @@ import fr.backendt.cinephobia.services.UserDetailsServiceImpl;
 import io.github.wimdeblauwe.htmx.spring.boot.security.HxRefreshHeaderAuthenticationEntryPoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.annotation.web.configurers.RequestCacheConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -26,6 +30,18 @@ public class SpringSecurityConfig {
         this.userDetailsService = userDetailsService;
     }
 
+    @Bean
+    @Order(1)
+    public SecurityFilterChain posterFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/poster/**") // Public immutable images, cached by browsers
+                .authorizeHttpRequests(requests -> requests.anyRequest().permitAll())
+                .headers(headers -> headers.cacheControl(HeadersConfigurer.CacheControlConfig::disable))
+                .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(RequestCacheConfigurer::disable);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         HxRefreshHeaderAuthenticationEntryPoint hxAuthEntry = new HxRefreshHeaderAuthenticationEntryPoint();
@@ -40,8 +56,9 @@ public class SpringSecurityConfig {
                                 "/warn/**",
                                 "/trigger",
                                 "/favicon.ico",
+                                "/actuator/health",
                                 "/error").permitAll()
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .formLogin(login -> login
                         .loginPage("/login")
@@ -0,0 +1,40 @@
+package fr.backendt.cinephobia.configurations;
+
+import fr.backendt.cinephobia.repositories.CircuitBreaker;
+import fr.backendt.cinephobia.repositories.MediaRepository;
+import fr.backendt.cinephobia.repositories.MediaRepository.TokenStatus;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+@Component("tmdbHealthIndicator")
+public class TMDBHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Medias are only served from local data");
+
+    private final MediaRepository mediaRepository;
+    private final CircuitBreaker circuitBreaker;
+
+    public TMDBHealthIndicator(MediaRepository mediaRepository, CircuitBreaker tmdbCircuitBreaker) {
+        this.mediaRepository = mediaRepository;
+        this.circuitBreaker = tmdbCircuitBreaker;
+    }
+
+    @Override
+    public Health health() {
+        TokenStatus tokenStatus = mediaRepository.getTokenStatus();
+        CircuitBreaker.State circuitState = circuitBreaker.getState();
+
+        Health.Builder health = switch(tokenStatus) {
+            case UNKNOWN -> Health.unknown();
+            case VALID -> circuitState == CircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+            case INVALID, UNREACHABLE -> Health.status(DEGRADED);
+        };
+        return health
+                .withDetail("token", tokenStatus.name().toLowerCase())
+                .withDetail("circuitBreaker", circuitState.name().toLowerCase())
+                .build();
+    }
+
+}
@@ -1,19 +1,101 @@
 package fr.backendt.cinephobia.configurations;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.repositories.Bulkhead;
+import fr.backendt.cinephobia.repositories.CircuitBreaker;
+import fr.backendt.cinephobia.repositories.RequestCoalescer;
+import fr.backendt.cinephobia.repositories.SearchCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 @Configuration
 public class TheMovieDBConfig {
 
-    public static final String IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w400/";
-    public static final String HD_IMAGE_BASE_URL = "https://image.tmdb.org/t/p/original/";
     private static final String V3_API_URL = "https://api.themoviedb.org/3";
+    private static final String IMAGE_API_URL = "https://image.tmdb.org/t/p";
 
     @Bean
     public WebClient tmdbAPI() {
         return WebClient.create(V3_API_URL);
     }
 
+    @Bean
+    public WebClient tmdbImageAPI() {
+        return WebClient.create(IMAGE_API_URL);
+    }
+
+    @Bean
+    public Cache<String, Media> tmdbMediaCache(@Value("${cinephobia.tmdb.cache.maximum-size}") long maximumSize,
+                                               @Value("${cinephobia.tmdb.cache.expire-after-write}") Duration expireAfterWrite,
+                                               MeterRegistry meterRegistry) {
+        Cache<String, Media> cache = Caffeine.newBuilder() // Caffeine evicts by size using W-TinyLFU (frequency-aware)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "tmdb.media");
+    }
+
+    @Bean
+    public Cache<String, SearchResults> tmdbSearchCache(@Value("${cinephobia.tmdb.cache.search-maximum-size}") long maximumSize,
+                                                        @Value("${cinephobia.tmdb.cache.expire-after-write}") Duration expireAfterWrite,
+                                                        MeterRegistry meterRegistry) {
+        Cache<String, SearchResults> cache = Caffeine.newBuilder() // Only read when TMDB cannot answer
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "tmdb.search");
+    }
+
+    @Bean
+    public Cache<String, SearchCursor> tmdbSearchCursorCache(@Value("${cinephobia.tmdb.cache.search-cursor-maximum-size}") long maximumSize,
+                                                             @Value("${cinephobia.tmdb.cache.search-cursor-expire-after-write}") Duration expireAfterWrite,
+                                                             MeterRegistry meterRegistry) {
+        Cache<String, SearchCursor> cache = Caffeine.newBuilder() // Short lived, so new TMDB results show up quickly
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "tmdb.search.cursor");
+    }
+
+    @Bean
+    public CircuitBreaker tmdbCircuitBreaker(@Value("${cinephobia.tmdb.circuit-breaker.window-size}") int windowSize,
+                                             @Value("${cinephobia.tmdb.circuit-breaker.failure-rate-threshold}") double failureRateThreshold,
+                                             @Value("${cinephobia.tmdb.circuit-breaker.slow-call-duration}") Duration slowCallDuration,
+                                             @Value("${cinephobia.tmdb.circuit-breaker.open-duration}") Duration openDuration) {
+        return new CircuitBreaker("tmdb", windowSize, failureRateThreshold, slowCallDuration, openDuration);
+    }
+
+    @Bean
+    public Bulkhead tmdbBulkhead(@Value("${cinephobia.tmdb.bulkhead.max-concurrent-calls}") int maxConcurrentCalls) {
+        return new Bulkhead("tmdb", maxConcurrentCalls);
+    }
+
+    @Bean
+    public RequestCoalescer<String, Media> tmdbMediaCoalescer() {
+        return new RequestCoalescer<>("tmdb.media");
+    }
+
+    @Bean
+    public RequestCoalescer<String, SearchResults> tmdbSearchCoalescer() {
+        return new RequestCoalescer<>("tmdb.search");
+    }
+
+    @Bean
+    public RequestCoalescer<String, Path> tmdbPosterCoalescer() {
+        return new RequestCoalescer<>("tmdb.poster");
+    }
+
 }
@@ -29,9 +29,11 @@ public class AuthenticationController {
     private static final Logger LOGGER = Logger.getLogger(AuthenticationController.class);
 
     private final UserService service;
+    private final ModelMapper mapper;
 
-    public AuthenticationController(UserService service) {
+    public AuthenticationController(UserService service, ModelMapper modelMapper) {
         this.service = service;
+        this.mapper = modelMapper;
     }
 
     @GetMapping("/login")
@@ -55,7 +57,6 @@ public class AuthenticationController {
             return completedFuture(model);
         }
 
-        ModelMapper mapper = new ModelMapper();
         User user = mapper.map(dto, User.class);
 
         return service.createUser(user)
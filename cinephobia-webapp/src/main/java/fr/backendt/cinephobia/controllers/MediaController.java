@@ -1,28 +1,44 @@
 package fr.backendt.cinephobia.controllers;
 
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.SearchSource;
 import fr.backendt.cinephobia.services.MediaService;
+import fr.backendt.cinephobia.services.SearchCanceller;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import org.jboss.logging.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CompletableFuture;
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 public class MediaController {
 
     private static final Logger LOGGER = Logger.getLogger(MediaController.class);
+    private static final int MAX_CARDS = 300;
+    private static final String SEARCH_ID_HEADER = "Search-Id"; // Sent by the results list, whose newer search supersedes the older one
+    private static final View NO_CONTENT_VIEW = (model, request, response) -> response.setStatus(HttpStatus.NO_CONTENT.value());
 
     private final MediaService service;
+    private final SearchCanceller searchCanceller;
 
-    public MediaController(MediaService service) {
+    public MediaController(MediaService service, SearchCanceller searchCanceller) {
         this.service = service;
+        this.searchCanceller = searchCanceller;
     }
 
     @GetMapping("/media")
@@ -31,21 +47,45 @@ public class MediaController {
     }
 
     @GetMapping(value = "/media", headers = "Hx-Request")
-    public CompletableFuture<ModelAndView> getMedias(@RequestParam(required = false) String search, @RequestParam(defaultValue = "1", required = false) Integer page) {
+    public Mono<ModelAndView> getMedias(@RequestParam(required = false) String search, @RequestParam(defaultValue = "1", required = false) Integer page,
+                                        @RequestParam(required = false) String source,
+                                        @RequestHeader(value = SEARCH_ID_HEADER, required = false) String searchId,
+                                        HttpServletRequest request) {
         if(page < 1) page = 1;
 
-        return service.getMedias(search, page)
-                .thenApply(searchResults -> new ModelAndView("fragments/medias :: mediaList")
+        SearchSource searchSource = SearchSource.fromName(source).orElse(null); // Only next pages have one
+        Mono<SearchResults> mediasSearch = service.getMedias(search, page, searchSource);
+        String searcher = getSearcher(request);
+        if(searcher != null && searchId != null && !searchId.isBlank()) { // Without an id, like next pages of the results, nothing is superseded
+            mediasSearch = searchCanceller.cancelOnNewerSearch(searcher, searchId, mediasSearch);
+        }
+        return mediasSearch
+                .map(searchResults -> new ModelAndView("fragments/medias :: mediaList")
                         .addObject("mediasPage", searchResults))
-                .exceptionally(exception -> {
-                    LOGGER.error("Could not get media page.", exception.getCause());
-                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not get medias.");
+                .defaultIfEmpty(new ModelAndView(NO_CONTENT_VIEW)) // Superseded by a newer search, so there is nothing to swap
+                .onErrorMap(exception -> {
+                    LOGGER.error("Could not get media page.", exception);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not get medias.");
                 });
     }
 
+    private String getSearcher(HttpServletRequest request) { // Anonymous searchers without a session are never cancelled
+        Principal principal = request.getUserPrincipal();
+        if(principal != null) return "user:" + principal.getName();
+
+        HttpSession session = request.getSession(false); // Searching must not create sessions
+        return session != null ? "session:" + session.getId() : null;
+    }
+
+    @GetMapping("/media/suggest")
+    public ModelAndView getSuggestions(@RequestParam(value = "q", required = false) String search) {
+        return new ModelAndView("fragments/medias :: suggestions")
+                .addObject("suggestions", service.getSuggestions(search));
+    }
+
     @GetMapping("/media/{type}/{id}")
-    public CompletableFuture<ModelAndView> getMedia(@PathVariable("type") String typeString, @PathVariable("id") Long id, @RequestParam(value = "card", required = false, defaultValue = "false") Boolean card) {
-        CompletableFuture<Media> mediaFuture = typeString.equalsIgnoreCase(MediaType.MOVIE.name()) ?
+    public Mono<ModelAndView> getMedia(@PathVariable("type") String typeString, @PathVariable("id") Long id, @RequestParam(value = "card", required = false, defaultValue = "false") Boolean card) {
+        Mono<Media> media = typeString.equalsIgnoreCase(MediaType.MOVIE.name()) ?
                 service.getMovie(id) :
                 service.getSeries(id);
 
@@ -53,8 +93,29 @@ public class MediaController {
                 "fragments/medias :: media" :
                 "media";
 
-        return mediaFuture.thenApply(media ->
-                new ModelAndView(viewName).addObject("media", media));
+        return media.map(foundMedia ->
+                new ModelAndView(viewName).addObject("media", foundMedia));
+    }
+
+    @GetMapping("/media/cards")
+    public Mono<ModelAndView> getMediaCards(@RequestParam("media") List<String> mediaKeys) {
+        List<MediaId> mediaIds = mediaKeys.stream()
+                .map(MediaId::fromKey)
+                .flatMap(Optional::stream)
+                .distinct()
+                .limit(MAX_CARDS)
+                .toList();
+
+        return service.getMediasById(mediaIds)
+                .map(medias -> {
+                    List<String> missingCards = mediaIds.stream()
+                            .filter(mediaId -> !medias.containsKey(mediaId))
+                            .map(MediaId::getCardClass)
+                            .toList();
+                    return new ModelAndView("fragments/medias :: mediaCards")
+                            .addObject("medias", medias.values())
+                            .addObject("missingCards", missingCards);
+                });
     }
 
 }
@@ -0,0 +1,87 @@
+package fr.backendt.cinephobia.controllers;
+
+import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
+import fr.backendt.cinephobia.services.PosterService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.jboss.logging.Logger;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Controller
+public class PosterController {
+
+    private static final Logger LOGGER = Logger.getLogger(PosterController.class);
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private final PosterService service;
+
+    public PosterController(PosterService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/poster/{size}/{poster}")
+    public Mono<ResponseEntity<Resource>> getPoster(@PathVariable("size") String size, @PathVariable("poster") String poster,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                    HttpServletRequest request) {
+        String eTag = '"' + size + '-' + poster + '"'; // TMDB never changes the image behind a poster path
+        if(eTag.equals(ifNoneMatch)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CACHE_CONTROL)
+                    .build());
+        }
+
+        return service.getPoster(size, poster)
+                .map(posterFile -> {
+                    long length = getLength(posterFile);
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag(eTag)
+                            .cacheControl(CACHE_CONTROL)
+                            .contentType(MediaTypeFactory.getMediaType(poster).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                            .contentLength(length);
+
+                    if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) { // Tomcat sends the file itself, without copying it through the JVM
+                        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, posterFile.toAbsolutePath().toString());
+                        request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+                        request.setAttribute(SENDFILE_END_ATTRIBUTE, length);
+                        return response.<Resource>build();
+                    }
+                    Resource posterResource = new FileSystemResource(posterFile);
+                    return response.body(posterResource);
+                })
+                .onErrorMap(exception -> {
+                    if(exception instanceof EntityNotFoundException) {
+                        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Poster not found.");
+                    }
+                    LOGGER.error("Could not get poster.", exception);
+                    return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not get poster.");
+                });
+    }
+
+    private long getLength(Path posterFile) {
+        try {
+            return Files.size(posterFile);
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
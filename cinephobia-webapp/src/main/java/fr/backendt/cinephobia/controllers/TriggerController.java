@@ -3,6 +3,7 @@ package fr.backendt.cinephobia.controllers;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.models.dto.TriggerDTO;
+import fr.backendt.cinephobia.repositories.ScoredSlice;
 import fr.backendt.cinephobia.services.TriggerService;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.groups.Default;
@@ -31,9 +32,9 @@ public class TriggerController {
     private final TriggerService service;
     private final ModelMapper mapper;
 
-    public TriggerController(TriggerService service) {
+    public TriggerController(TriggerService service, ModelMapper modelMapper) {
         this.service = service;
-        this.mapper = new ModelMapper();
+        this.mapper = modelMapper;
     }
 
     @PostMapping("/admin/trigger")
@@ -71,16 +72,23 @@ public class TriggerController {
 
     @GetMapping(value = "/trigger", headers = "Hx-Request")
     public CompletableFuture<ModelAndView> getTriggers(@RequestParam(required = false) String search,
-                                                       @RequestParam(required = false, defaultValue = "0") Integer page,
+                                                       @RequestParam(required = false, defaultValue = "0") Long after,
+                                                       @RequestParam(required = false) Integer afterScore,
                                                        @RequestParam(required = false, defaultValue = "50") Integer size) {
-        if(page < 0) page = 0;
+        if(after < 0) after = 0L;
         if(size < 1) size = 1;
         else if(size > 300) size = 300;
 
-        Pageable pageable = PageRequest.of(page, size);
-        return service.getTriggers(search, pageable)
-                .thenApply(triggers -> new ModelAndView("fragments/triggers :: triggerList")
-                        .addObject("triggers", triggers))
+        Pageable pageable = PageRequest.ofSize(size);
+        return service.getTriggers(search, afterScore, after, pageable)
+                .thenApply(triggers -> {
+                    ModelAndView model = new ModelAndView("fragments/triggers :: triggerList")
+                            .addObject("triggers", triggers);
+                    if(triggers instanceof ScoredSlice<Trigger> scoredTriggers) { // Only index searches continue after a score
+                        model.addObject("afterScore", scoredTriggers.getLastScore());
+                    }
+                    return model;
+                })
                 .exceptionally(exception -> {
                     LOGGER.error("Could not get triggers page.", exception.getCause());
                     throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not get triggers.");
@@ -12,9 +12,9 @@ import fr.backendt.cinephobia.services.UserService;
 import io.github.wimdeblauwe.htmx.spring.boot.mvc.HtmxResponse;
 import org.jboss.logging.Logger;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -46,11 +46,11 @@ public class UserController {
     private final SessionRegistry sessions;
     private final ModelMapper mapper;
 
-    public UserController(UserService service, TriggerService triggerService, SessionRegistry sessions) {
+    public UserController(UserService service, TriggerService triggerService, SessionRegistry sessions, ModelMapper modelMapper) {
         this.service = service;
         this.triggerService = triggerService;
         this.sessions = sessions;
-        this.mapper = new ModelMapper();
+        this.mapper = modelMapper;
     }
 
     @GetMapping("/admin/user")
@@ -59,18 +59,18 @@ public class UserController {
     }
 
     @GetMapping(value = "/admin/user", headers = "Hx-Request")
-    public CompletableFuture<ModelAndView> getUsers(@RequestParam(value = "search", required = false) String nameSearch,
-                                                    @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
+    public CompletableFuture<ModelAndView> getUsers(@RequestParam(value = "search", required = false) String search,
+                                                    @RequestParam(value = "after", required = false, defaultValue = "0") Long after,
                                                     @RequestParam(value = "size", required = false, defaultValue = "50") Integer size) {
-        if(page < 0) page = 0;
+        if(after < 0) after = 0L;
         if(size < 1) size = 1;
         else if(size > 500) size = 500;
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.ofSize(size);
 
-        return service.getUsers(nameSearch, pageable)
+        return service.getUsers(search, after, pageable)
                 .thenApply(users -> {
-                    Page<UserResponseDTO> userDTOs = users.map(user -> mapper.map(user, UserResponseDTO.class));
+                    Slice<UserResponseDTO> userDTOs = users.map(user -> mapper.map(user, UserResponseDTO.class));
                     return new ModelAndView("fragments/users :: userList").addObject("users", userDTOs);
                 })
                 .exceptionally(exception -> {
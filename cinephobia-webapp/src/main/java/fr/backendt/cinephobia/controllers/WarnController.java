@@ -1,23 +1,22 @@
 package fr.backendt.cinephobia.controllers;
 
+import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
-import fr.backendt.cinephobia.models.MediaType;
-import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.models.*;
+import fr.backendt.cinephobia.models.dto.TriggerDTO;
 import fr.backendt.cinephobia.models.dto.WarnDTO;
 import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
-import fr.backendt.cinephobia.services.TriggerService;
-import fr.backendt.cinephobia.services.UserService;
+import fr.backendt.cinephobia.models.dto.WarnSummaryDTO;
 import fr.backendt.cinephobia.services.WarnService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jboss.logging.Logger;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
@@ -27,6 +26,7 @@ import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -36,37 +36,29 @@ public class WarnController {
     private static final Logger LOGGER = Logger.getLogger(WarnController.class);
 
     private final WarnService service;
-    private final TriggerService triggerService;
-    private final UserService userService;
     private final ModelMapper mapper;
 
-    public WarnController(WarnService service, TriggerService triggerService, UserService userService) {
+    public WarnController(WarnService service, ModelMapper modelMapper) {
         this.service = service;
-        this.triggerService = triggerService;
-        this.userService = userService;
-        this.mapper = new ModelMapper();
+        this.mapper = modelMapper;
     }
 
     @GetMapping("/warn/{mediaType}/{mediaId}")
     public CompletableFuture<ModelAndView> getMediaWarns(@PathVariable("mediaType") String mediaTypeName,
                                                          @PathVariable("mediaId") Long mediaId,
-                                                         @RequestParam(required = false, value = "page", defaultValue = "0") Integer page,
+                                                         @RequestParam(required = false, value = "after", defaultValue = "0") Long after,
                                                          @RequestParam(required = false, value = "size", defaultValue = "50") Integer size) {
-        if(page < 0) page = 0;
+        if(after < 0) after = 0L;
         if(size < 1) size = 1;
         else if(size > 300) size = 300;
 
         MediaType mediaType = MediaType.fromName(mediaTypeName)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid media type."));
 
-        Pageable pageable = PageRequest.of(page, size);
-        CompletableFuture<Page<Warn>> warnPage = service.getWarnsForMedia(mediaId, mediaType, pageable);
-        CompletableFuture<Page<WarnResponseDTO>> warnDTOs = warnPage.thenApply(warns ->
-                warns.map(warn -> mapper.map(warn, WarnResponseDTO.class)));
-
+        Pageable pageable = PageRequest.ofSize(size);
         String mediaWarnsUri = "/warn/%s/%s".formatted(mediaType, mediaId);
         ModelAndView view =  new ModelAndView("fragments/warns :: warnList");
-        return warnDTOs.thenApply(warns -> view
+        return service.getWarnsForMedia(mediaId, mediaType, after, pageable).thenApply(warns -> view
                 .addObject("warnPage", warns)
                 .addObject("warnsUri", mediaWarnsUri)
         ).exceptionally(exception -> {
@@ -75,22 +67,44 @@ public class WarnController {
         });
     }
 
+    @GetMapping("/warn/{mediaType}/{mediaId}/summary")
+    public CompletableFuture<ModelAndView> getMediaWarnSummary(@PathVariable("mediaType") String mediaTypeName,
+                                                               @PathVariable("mediaId") Long mediaId) {
+        MediaType mediaType = MediaType.fromName(mediaTypeName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid media type."));
+
+        ModelAndView view = new ModelAndView("fragments/warns :: warnSummary");
+        return service.getWarnSummaries(mediaId, mediaType)
+                .thenApply(summaries -> summaries.stream()
+                        .map(summary -> new WarnSummaryDTO( // triggerId and trigger.id are ambiguous to the mapper
+                                mapper.map(summary.getTrigger(), TriggerDTO.class),
+                                summary.getWarnCount(),
+                                summary.getAverageExpositionLevel(),
+                                summary.getMaxExpositionLevel()))
+                        .toList())
+                .thenApply(summaries -> view.addObject("summaries", summaries))
+                .exceptionally(exception -> {
+                    LOGGER.error("Could not get warn summary.", exception.getCause());
+                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not get warn summary.");
+                });
+    }
+
     @GetMapping("/warns")
-    public CompletableFuture<ModelAndView> getUserWarns(@RequestParam(required = false, value = "page", defaultValue = "0") Integer page,
+    public CompletableFuture<ModelAndView> getUserWarns(@RequestParam(required = false, value = "after", defaultValue = "0") Long after,
                                                         @RequestParam(required = false, value = "size", defaultValue = "50") Integer size,
-                                                        Authentication authentication) {
-        Pageable pageable = PageRequest.of(page, size);
+                                                        @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        if(after < 0) after = 0L;
+        if(size < 1) size = 1;
+        else if(size > 300) size = 300;
+
+        Pageable pageable = PageRequest.ofSize(size);
         ModelAndView model = new ModelAndView("fragments/warns :: profileWarns");
 
-        String userEmail = authentication.getName();
-        return service.getWarnsForUser(userEmail, pageable)
-                .thenApply(warns -> {
-                    Page<WarnResponseDTO> warnsDTO = warns.map(warn -> mapper.map(warn, WarnResponseDTO.class));
-                    return model.addObject("warns", warnsDTO);
-                })
+        return service.getWarnsForUser(currentUser.getUserId(), after, pageable)
+                .thenApply(warns -> model.addObject("warns", warns))
                 .exceptionally(exception -> {
                     LOGGER.error("Could not get user warns to display on profile", exception);
-                    return model.addObject("warns", new PageImpl<>(List.of()));
+                    return model.addObject("warns", new SliceImpl<>(List.of()));
                 });
     }
 
@@ -102,7 +116,7 @@ public class WarnController {
     }
 
     @PostMapping("/media/{mediaType}/{mediaId}")
-    public CompletableFuture<ModelAndView> createWarn(@PathVariable("mediaType") String mediaTypeName, @PathVariable("mediaId") Long mediaId, @ModelAttribute("warn") @Validated WarnDTO warnDTO, BindingResult results, Authentication authentication, HttpServletResponse response) {
+    public CompletableFuture<ModelAndView> createWarn(@PathVariable("mediaType") String mediaTypeName, @PathVariable("mediaId") Long mediaId, @ModelAttribute("warn") @Validated WarnDTO warnDTO, BindingResult results, @AuthenticationPrincipal UserDetailsImpl currentUser, HttpServletResponse response) {
         ModelAndView errorModel = new ModelAndView("fragments/warns :: warnForm");
         if(results.hasErrors()) {
             response.addHeader("HX-Retarget", "#warnForm");
@@ -110,17 +124,21 @@ public class WarnController {
             return completedFuture(errorModel.addObject("warn", warnDTO));
         }
 
-        String userEmail = authentication.getName();
-        CompletableFuture<Warn> futureWarn = buildWarnFromDTO(mediaTypeName, mediaId, warnDTO, userEmail, results);
+        Warn warn = buildWarnFromDTO(mediaTypeName, mediaId, warnDTO, currentUser.getUserId());
 
-        return futureWarn.thenCompose(service::createWarn)
+        return completedFuture(warn).thenCompose(service::createWarn)
                 .thenApply(savedWarn -> {
                     WarnResponseDTO savedDTO = mapper.map(savedWarn, WarnResponseDTO.class);
                     return new ModelAndView("fragments/warns :: warn")
                             .addObject("warn", savedDTO);
                 }).exceptionally(exception -> {
-                    if(!results.hasErrors()) {
+                    Throwable cause = exception.getCause();
+                    if(cause instanceof BadRequestException) {
                         results.rejectValue("triggerId", "warn-already-exist", "You already created a similar warn.");
+                    } else if(cause instanceof EntityNotFoundException && WarnService.UNKNOWN_TRIGGER_MESSAGE.equals(cause.getMessage())) {
+                        results.rejectValue("triggerId", "trigger-doesnt-exist", "Trigger does not exist");
+                    } else { // Not caused by the form, like a deleted user
+                        throw new CompletionException(cause);
                     }
                     response.addHeader("HX-Retarget", "#warnForm");
                     response.addHeader("HX-Reswap", "outerHTML");
@@ -129,13 +147,12 @@ public class WarnController {
     }
 
     @DeleteMapping("/warn/{warnId}")
-    public CompletableFuture<ResponseEntity<Void>> deleteWarn(@PathVariable Long warnId, Authentication authentication) {
-        String userEmail = authentication.getName();
-        return service.deleteWarnIfOwnedByUser(warnId, userEmail)
+    public CompletableFuture<ResponseEntity<Void>> deleteWarn(@PathVariable Long warnId, @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        return service.deleteWarnIfOwnedByUser(warnId, currentUser.getUserId())
                 .thenApply(future -> ResponseEntity.ok().build());
     }
 
-    private CompletableFuture<Warn> buildWarnFromDTO(String mediaTypeName, long mediaId, WarnDTO warnDTO, String userEmail, BindingResult result) {
+    private Warn buildWarnFromDTO(String mediaTypeName, long mediaId, WarnDTO warnDTO, Long userId) {
         Warn warn = mapper.map(warnDTO, Warn.class); // Convert DTO
 
         // Set media
@@ -144,19 +161,15 @@ public class WarnController {
         warn.setMediaType(mediaType);
         warn.setMediaId(mediaId);
 
-        // Add relations
-        CompletableFuture<Void> futureTrigger = triggerService.getTrigger(warnDTO.getTriggerId())
-                .thenAccept(warn::setTrigger)
-                .exceptionally(exception -> {
-                    result.rejectValue("triggerId", "trigger-doesnt-exist", "Trigger does not exist");
-                    throw new EntityNotFoundException("Trigger does not exist");
-                });
-
-        CompletableFuture<Void> futureUser = userService.getUserByEmail(userEmail, false)
-                .thenAccept(warn::setUser);
+        // Add relations by id, the service checks them when inserting
+        Trigger trigger = new Trigger();
+        trigger.setId(warnDTO.getTriggerId());
+        warn.setTrigger(trigger);
 
-        return CompletableFuture.allOf(futureUser, futureTrigger)
-                .thenApply(futures -> warn);
+        User user = new User();
+        user.setId(userId);
+        warn.setUser(user);
+        return warn;
     }
 
 }
@@ -0,0 +1,7 @@
+package fr.backendt.cinephobia.exceptions;
+
+public class CallNotPermittedException extends RuntimeException {
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
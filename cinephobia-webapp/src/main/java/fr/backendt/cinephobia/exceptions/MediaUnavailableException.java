@@ -0,0 +1,12 @@
+package fr.backendt.cinephobia.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MediaUnavailableException extends RuntimeException {
+    public MediaUnavailableException(String message) {
+        super(message);
+    }
+
+}
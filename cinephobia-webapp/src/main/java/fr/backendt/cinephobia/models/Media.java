@@ -3,25 +3,32 @@ package fr.backendt.cinephobia.models;
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import fr.backendt.cinephobia.configurations.TheMovieDBConfig;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Generated;
 import lombok.NoArgsConstructor;
 import org.springframework.lang.Nullable;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Data
 @Generated
-@AllArgsConstructor
 @NoArgsConstructor
+@Entity
+@IdClass(MediaId.class)
 public class Media {
 
+    @Id
     @JsonProperty("id")
     private Long id;
 
+    @Id
     @JsonIgnore
+    @Enumerated(EnumType.STRING)
     private MediaType type;
 
     @JsonProperty("title")
@@ -29,21 +36,46 @@ public class Media {
     private String title;
 
     @JsonProperty("overview")
+    @Column(name = "overview")
     private String description;
 
     @Nullable
     @JsonProperty("poster_path")
     private String posterPath;
 
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Instant updatedAt;
+
+    public Media(Long id, MediaType type, String title, String description, @Nullable String posterPath) {
+        this.id = id;
+        this.type = type;
+        this.title = title;
+        this.description = description;
+        this.posterPath = posterPath;
+    }
+
+    @Nullable
+    public String getPosterUrl(boolean highDefinition) {
+        PosterSize size = highDefinition ? PosterSize.W780 : PosterSize.W342;
+        return getPosterUrl(size);
+    }
+
     @Nullable
-    public String getImageUrl(boolean highDefinition) {
+    public String getPosterUrl(PosterSize size) {
         if(posterPath == null) return null;
-        String baseUrl = highDefinition ?
-                TheMovieDBConfig.HD_IMAGE_BASE_URL :
-                TheMovieDBConfig.IMAGE_BASE_URL;
-        return URI.create(baseUrl)
-                .resolve('.' + posterPath)
-                .toString();
+        return "/poster/" + size.getName() + posterPath;
+    }
+
+    @Nullable
+    public String getPosterSrcset(boolean highDefinition) {
+        if(posterPath == null) return null;
+        List<PosterSize> sizes = highDefinition ?
+                List.of(PosterSize.W342, PosterSize.W500, PosterSize.W780) :
+                List.of(PosterSize.W185, PosterSize.W342, PosterSize.W500);
+        return sizes.stream()
+                .map(size -> getPosterUrl(size) + ' ' + size.getWidth() + 'w')
+                .collect(Collectors.joining(", "));
     }
 
     public String getMediaUri() {
@@ -53,11 +85,16 @@ public class Media {
                 .toString();
     }
 
+    public String getCardClass() {
+        return new MediaId(id, type).getCardClass();
+    }
+
     public Media(Media media) {
         this.id = media.id;
         this.type = media.type;
         this.title = media.title;
         this.description = media.description;
         this.posterPath = media.posterPath;
+        this.updatedAt = media.updatedAt;
     }
 }
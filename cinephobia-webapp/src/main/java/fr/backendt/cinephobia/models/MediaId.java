@@ -0,0 +1,43 @@
+package fr.backendt.cinephobia.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Generated;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+@Data
+@Generated
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaId implements Serializable {
+
+    private Long id;
+
+    private MediaType type;
+
+    public static Optional<MediaId> fromKey(String key) { // Keys look like "movie:1234"
+        int separatorIndex = key.indexOf(':');
+        if(separatorIndex < 1) return Optional.empty();
+
+        String typeName = key.substring(0, separatorIndex);
+        String idString = key.substring(separatorIndex + 1);
+        try {
+            long id = Long.parseLong(idString);
+            return MediaType.fromName(typeName)
+                    .map(type -> new MediaId(id, type));
+        } catch(NumberFormatException exception) {
+            return Optional.empty();
+        }
+    }
+
+    public String getKey() {
+        return type.name().toLowerCase() + ':' + id;
+    }
+
+    public String getCardClass() {
+        return "media-card-" + type.name().toLowerCase() + '-' + id;
+    }
+}
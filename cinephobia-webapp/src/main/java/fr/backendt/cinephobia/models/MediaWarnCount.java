@@ -0,0 +1,24 @@
+package fr.backendt.cinephobia.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Generated;
+import lombok.NoArgsConstructor;
+
+@Data
+@Generated
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaWarnCount {
+
+    private Long mediaId;
+
+    private MediaType mediaType;
+
+    private Long warnCount;
+
+    public MediaId getMediaKey() {
+        return new MediaId(mediaId, mediaType);
+    }
+
+}
@@ -0,0 +1,44 @@
+package fr.backendt.cinephobia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Generated;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+@Entity
+@Immutable // Only written by the native queries of MediaWarnSummaryRepository
+@Data
+@Generated
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(MediaWarnSummaryId.class)
+@Table(name = "media_warn_summary")
+public class MediaWarnSummary {
+
+    @Id
+    private Long mediaId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private MediaType mediaType;
+
+    @Id
+    private Long triggerId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "trigger_id", insertable = false, updatable = false)
+    private Trigger trigger;
+
+    private int warnCount;
+
+    private int expositionTotal;
+
+    private int maxExpositionLevel;
+
+    public double getAverageExpositionLevel() {
+        return warnCount == 0 ? 0 : (double) expositionTotal / warnCount;
+    }
+
+}
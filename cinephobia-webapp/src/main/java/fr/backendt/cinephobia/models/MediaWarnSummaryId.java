@@ -0,0 +1,22 @@
+package fr.backendt.cinephobia.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Generated;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Generated
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaWarnSummaryId implements Serializable {
+
+    private Long mediaId;
+
+    private MediaType mediaType;
+
+    private Long triggerId;
+
+}
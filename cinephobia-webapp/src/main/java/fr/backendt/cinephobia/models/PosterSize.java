@@ -0,0 +1,34 @@
+package fr.backendt.cinephobia.models;
+
+import java.util.Optional;
+
+public enum PosterSize { // Poster widths served by TMDB that are rendered in pages
+    W185(185),
+    W342(342),
+    W500(500),
+    W780(780);
+
+    private final int width;
+
+    PosterSize(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    public static Optional<PosterSize> fromName(String name) {
+        name = name.toUpperCase();
+        try {
+            PosterSize size = PosterSize.valueOf(name);
+            return Optional.of(size);
+        } catch(IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -29,6 +31,7 @@ public class User {
 
     @ManyToMany
     @JoinTable(inverseJoinColumns = @JoinColumn(name = "trigger_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Trigger ids, resolved from the Trigger region
     private Set<Trigger> triggers;
 
     public User(String displayName, String email, String password, String role) {
@@ -1,5 +1,6 @@
 package fr.backendt.cinephobia.models.dto;
 
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.MediaType;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -8,8 +9,6 @@ import lombok.Generated;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Range;
 
-import java.net.URI;
-
 @Data
 @Generated
 @AllArgsConstructor
@@ -31,11 +30,16 @@ public class WarnResponseDTO {
     @Range(min = 1, max = 10, message = "The exposition level must be between 0 and 10")
     private int expositionLevel;
 
-    public String getMediaCardUrl() {
-        return URI.create("/media/")
-                .resolve(mediaType.name().toLowerCase() + '/')
-                .resolve(mediaId + "?card=true")
-                .toString();
+    public WarnResponseDTO(Long id, Long mediaId, MediaType mediaType, Long triggerId, String triggerName, String triggerDescription, int expositionLevel) {
+        this(id, mediaId, mediaType, new TriggerDTO(triggerId, triggerName, triggerDescription), expositionLevel);
+    }
+
+    public String getMediaCardKey() {
+        return new MediaId(mediaId, mediaType).getKey();
+    }
+
+    public String getMediaCardClass() {
+        return new MediaId(mediaId, mediaType).getCardClass();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package fr.backendt.cinephobia.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Generated;
+import lombok.NoArgsConstructor;
+
+@Data
+@Generated
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarnSummaryDTO {
+
+    private TriggerDTO trigger;
+
+    private int warnCount;
+
+    private double averageExpositionLevel;
+
+    private int maxExpositionLevel;
+
+}
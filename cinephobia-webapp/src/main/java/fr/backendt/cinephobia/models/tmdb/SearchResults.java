@@ -1,5 +1,6 @@
 package fr.backendt.cinephobia.models.tmdb;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import fr.backendt.cinephobia.models.Media;
 import lombok.*;
@@ -26,17 +27,30 @@ public class SearchResults {
     @JsonProperty("results")
     private List<Media> results;
 
+    @JsonIgnore
+    private boolean partial;
+
+    @JsonIgnore
+    private SearchSource source = SearchSource.TMDB;
+
+    public SearchResults(int currentPage, int totalPages, int totalResults, List<Media> results) {
+        this.currentPage = currentPage;
+        this.totalPages = totalPages;
+        this.totalResults = totalResults;
+        this.results = results;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         SearchResults media = (SearchResults) o;
-        return currentPage == media.currentPage && totalPages == media.totalPages && totalResults == media.totalResults && Objects.equals(results, media.results);
+        return currentPage == media.currentPage && totalPages == media.totalPages && totalResults == media.totalResults && partial == media.partial && source == media.source && Objects.equals(results, media.results);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), currentPage, totalPages, totalResults, results);
+        return Objects.hash(super.hashCode(), currentPage, totalPages, totalResults, results, partial, source);
     }
 }
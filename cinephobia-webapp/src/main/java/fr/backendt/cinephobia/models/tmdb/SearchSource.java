@@ -0,0 +1,22 @@
+package fr.backendt.cinephobia.models.tmdb;
+
+import java.util.Optional;
+
+public enum SearchSource { // Where a search page came from, so its next pages come from the same place
+    INDEX,
+    TMDB;
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    public static Optional<SearchSource> fromName(String name) {
+        if(name == null) return Optional.empty();
+        try {
+            SearchSource source = SearchSource.valueOf(name.toUpperCase());
+            return Optional.of(source);
+        } catch(IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package fr.backendt.cinephobia.models.tmdb;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaType;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TMDBJsonDecoder { // Reads only the fields used by Media, every other field is skipped without being parsed
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public Media decodeMedia(DataBuffer json, MediaType type) {
+        try(InputStream input = json.asInputStream(true)) { // Closing the stream releases the pooled buffer
+            return decodeMedia(input, type);
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public SearchResults decodeSearchResults(DataBuffer json, MediaType type) {
+        try(InputStream input = json.asInputStream(true)) {
+            return decodeSearchResults(input, type);
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public Media decodeMedia(InputStream json, MediaType type) throws IOException {
+        try(JsonParser parser = jsonFactory.createParser(json)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a media object");
+            }
+            return readMedia(parser, type);
+        }
+    }
+
+    public SearchResults decodeSearchResults(InputStream json, MediaType type) throws IOException {
+        try(JsonParser parser = jsonFactory.createParser(json)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a search results object");
+            }
+
+            SearchResults results = new SearchResults(0, 0, 0, List.of());
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch(field) {
+                    case "page" -> results.setCurrentPage(parser.getValueAsInt());
+                    case "total_pages" -> results.setTotalPages(parser.getValueAsInt());
+                    case "total_results" -> results.setTotalResults(parser.getValueAsInt());
+                    case "results" -> results.setResults(readMedias(parser, type));
+                    default -> parser.skipChildren();
+                }
+            }
+            return results;
+        }
+    }
+
+    private List<Media> readMedias(JsonParser parser, MediaType type) throws IOException {
+        if(parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<Media> medias = new ArrayList<>();
+        while(parser.nextToken() == JsonToken.START_OBJECT) {
+            medias.add(readMedia(parser, type));
+        }
+        return medias;
+    }
+
+    private Media readMedia(JsonParser parser, MediaType type) throws IOException {
+        Media media = new Media();
+        media.setType(type);
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch(field) {
+                case "id" -> media.setId(parser.getValueAsLong());
+                case "title", "name" -> media.setTitle(parser.getValueAsString()); // Movies have a title, series have a name
+                case "overview" -> media.setDescription(parser.getValueAsString());
+                case "poster_path" -> media.setPosterPath(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return media;
+    }
+
+}
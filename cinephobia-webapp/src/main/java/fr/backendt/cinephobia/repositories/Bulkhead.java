@@ -0,0 +1,54 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.exceptions.CallNotPermittedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Bulkhead implements MeterBinder {
+
+    private final String name;
+
+    private final Semaphore permits;
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrentCalls) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if(!permits.tryAcquire()) { // Callers are rejected instead of queued, so they never wait for a permit
+                rejectedCalls.increment();
+                return Mono.error(new CallNotPermittedException("Bulkhead " + name + " is full"));
+            }
+            return call.doFinally(signal -> permits.release());
+        });
+    }
+
+    public int getAvailableCallCount() {
+        return permits.availablePermits();
+    }
+
+    public long getRejectedCallCount() {
+        return rejectedCalls.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bulkhead.calls.available", this, Bulkhead::getAvailableCallCount)
+                .description("Calls that can still be started concurrently")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("bulkhead.calls.rejected", this, Bulkhead::getRejectedCallCount)
+                .description("Calls rejected because the bulkhead was full")
+                .tag("name", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,178 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.exceptions.CallNotPermittedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jboss.logging.Logger;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CircuitBreaker implements MeterBinder {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialCallInFlight;
+
+    private final boolean[] failedCalls; // Last calls outcomes, as a ring buffer
+    private final boolean[] slowCalls;
+    private int recordedCalls;
+    private int nextCall;
+    private int failedCallCount;
+    private int slowCallCount;
+
+    private final LongAdder successfulCallsTotal = new LongAdder();
+    private final LongAdder failedCallsTotal = new LongAdder();
+    private final LongAdder slowCallsTotal = new LongAdder();
+    private final LongAdder rejectedCallsTotal = new LongAdder();
+
+    public CircuitBreaker(String name, int windowSize, double failureRateThreshold, Duration slowCallDuration, Duration openDuration) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.max(1, windowSize / 2);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if(!tryAcquirePermission()) {
+                rejectedCallsTotal.increment();
+                return Mono.error(new CallNotPermittedException("Circuit breaker " + name + " is open"));
+            }
+
+            long startTime = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnSuccess(result -> {
+                        if(done.compareAndSet(false, true)) record(false, System.nanoTime() - startTime);
+                    })
+                    .doOnError(error -> {
+                        if(!done.compareAndSet(false, true)) return;
+                        if(error instanceof CallNotPermittedException) releasePermission(); // Rejected before reaching the service
+                        else record(true, System.nanoTime() - startTime);
+                    })
+                    .doOnCancel(() -> {
+                        if(done.compareAndSet(false, true)) releasePermission();
+                    });
+        });
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        if(state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return switch(state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> { // A single trial call decides whether the breaker closes again
+                if(trialCallInFlight) yield false;
+                trialCallInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    private synchronized void releasePermission() {
+        if(state == State.HALF_OPEN) trialCallInFlight = false;
+    }
+
+    private synchronized void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        if(failed) failedCallsTotal.increment();
+        else successfulCallsTotal.increment();
+        if(slow) slowCallsTotal.increment();
+
+        if(state == State.HALF_OPEN) {
+            transitionTo(failed || slow ? State.OPEN : State.CLOSED);
+            return;
+        }
+        if(state == State.OPEN) return; // Call started before the breaker opened
+
+        if(recordedCalls == windowSize) { // Forget the oldest call
+            if(failedCalls[nextCall]) failedCallCount--;
+            if(slowCalls[nextCall]) slowCallCount--;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextCall] = failed;
+        slowCalls[nextCall] = slow;
+        if(failed) failedCallCount++;
+        if(slow) slowCallCount++;
+        nextCall = (nextCall + 1) % windowSize;
+
+        boolean thresholdReached = failedCallCount >= failureRateThreshold * recordedCalls ||
+                slowCallCount >= failureRateThreshold * recordedCalls;
+        if(recordedCalls >= minimumCalls && thresholdReached) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        LOGGER.infof("Circuit breaker %s changed from %s to %s", name, state, newState);
+        state = newState;
+        trialCallInFlight = false;
+        if(newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        if(newState != State.HALF_OPEN) { // Outcomes from before the transition are not relevant anymore
+            recordedCalls = 0;
+            nextCall = 0;
+            failedCallCount = 0;
+            slowCallCount = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejectedCallCount() {
+        return rejectedCallsTotal.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for(State gaugeState : State.values()) {
+            Gauge.builder("circuit.breaker.state", this, breaker -> breaker.getState() == gaugeState ? 1 : 0)
+                    .description("Whether the circuit breaker is in this state")
+                    .tag("name", name)
+                    .tag("state", gaugeState.name().toLowerCase())
+                    .register(registry);
+        }
+        registerCallCounter(registry, "successful", successfulCallsTotal);
+        registerCallCounter(registry, "failed", failedCallsTotal);
+        registerCallCounter(registry, "slow", slowCallsTotal);
+        registerCallCounter(registry, "rejected", rejectedCallsTotal);
+    }
+
+    private void registerCallCounter(MeterRegistry registry, String kind, LongAdder counter) {
+        FunctionCounter.builder("circuit.breaker.calls", counter, LongAdder::sum)
+                .description("Calls that went through the circuit breaker")
+                .tag("name", name)
+                .tag("kind", kind)
+                .register(registry);
+    }
+}
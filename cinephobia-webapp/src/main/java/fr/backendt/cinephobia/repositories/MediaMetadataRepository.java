@@ -0,0 +1,27 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MediaMetadataRepository extends JpaRepository<Media, MediaId> {
+
+    /**
+     * Finds the medias updated before a date, ordered by update date then key and starting after the given media.
+     * The key breaks ties between medias updated in the same second, so no media is skipped between batches.
+     */
+    @Query(value = """
+            SELECT * FROM media
+            WHERE updated_at < :before AND (updated_at > :afterUpdatedAt
+                OR (updated_at = :afterUpdatedAt AND (id > :afterId OR (id = :afterId AND type > :afterType))))
+            ORDER BY updated_at, id, type LIMIT :limit
+            """, nativeQuery = true)
+    List<Media> findAllUpdatedBefore(Instant before, Instant afterUpdatedAt, Long afterId, String afterType, int limit);
+
+}
@@ -1,34 +1,109 @@
 package fr.backendt.cinephobia.repositories;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import fr.backendt.cinephobia.exceptions.CallNotPermittedException;
+import fr.backendt.cinephobia.exceptions.MediaUnavailableException;
 import fr.backendt.cinephobia.exceptions.TMDBException;
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.TMDBJsonDecoder;
+import org.jboss.logging.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Repository
 public class MediaRepository {
 
+    private static final Logger LOGGER = Logger.getLogger(MediaRepository.class);
     private static final Duration TIMEOUT_DURATION = Duration.ofSeconds(10);
+    private static final int REFRESH_BATCH_SIZE = 100;
+    private static final int MAX_CONCURRENT_REFRESHES = 4;
+    private static final int MAX_CONCURRENT_POPULAR_REFRESHES = 2;
+    private static final TMDBJsonDecoder DECODER = new TMDBJsonDecoder();
+    private static final Pattern WHITESPACES_PATTERN = Pattern.compile("\\s+");
+    private static final int MAX_CURSOR_PAGES = 50;
 
     private final String token;
 
     private final WebClient client;
 
-    public MediaRepository(@Value("${cinephobia.tmdb.jwt}") String token, WebClient tmdbAPI) {
+    private final Cache<String, Media> mediaCache;
+    private final Cache<String, SearchResults> searchCache;
+    private final Cache<String, SearchCursor> searchCursors;
+
+    private final RequestCoalescer<String, Media> mediaCoalescer;
+    private final RequestCoalescer<String, SearchResults> searchCoalescer;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    private final MediaMetadataRepository metadataRepository;
+    private final MediaSearchIndex searchIndex;
+    private final Duration metadataExpiration;
+    private final Duration metadataRefreshAhead;
+    private final int maxRefreshedMedias;
+
+    private final int popularPagesCount;
+    private final AtomicReference<Map<Integer, SearchResults>> popularMovies = new AtomicReference<>(Map.of());
+
+    private volatile TokenStatus tokenStatus = TokenStatus.UNKNOWN;
+
+    public enum TokenStatus {
+        UNKNOWN,
+        VALID,
+        INVALID,
+        UNREACHABLE
+    }
+
+    public MediaRepository(@Value("${cinephobia.tmdb.jwt}") String token, WebClient tmdbAPI,
+                           Cache<String, Media> tmdbMediaCache, Cache<String, SearchResults> tmdbSearchCache,
+                           Cache<String, SearchCursor> tmdbSearchCursorCache,
+                           RequestCoalescer<String, Media> tmdbMediaCoalescer, RequestCoalescer<String, SearchResults> tmdbSearchCoalescer,
+                           CircuitBreaker tmdbCircuitBreaker, Bulkhead tmdbBulkhead,
+                           MediaMetadataRepository metadataRepository, MediaSearchIndex searchIndex,
+                           @Value("${cinephobia.tmdb.media.expire-after}") Duration metadataExpiration,
+                           @Value("${cinephobia.tmdb.media.refresh-ahead}") Duration metadataRefreshAhead,
+                           @Value("${cinephobia.tmdb.media.refresh-max-medias}") int maxRefreshedMedias,
+                           @Value("${cinephobia.tmdb.popular.pages}") int popularPagesCount) {
         this.token = token;
         this.client = tmdbAPI;
-        validateToken();
+        this.mediaCache = tmdbMediaCache;
+        this.searchCache = tmdbSearchCache;
+        this.searchCursors = tmdbSearchCursorCache;
+        this.mediaCoalescer = tmdbMediaCoalescer;
+        this.searchCoalescer = tmdbSearchCoalescer;
+        this.circuitBreaker = tmdbCircuitBreaker;
+        this.bulkhead = tmdbBulkhead;
+        this.metadataRepository = metadataRepository;
+        this.searchIndex = searchIndex;
+        this.metadataExpiration = metadataExpiration;
+        this.metadataRefreshAhead = metadataRefreshAhead;
+        this.maxRefreshedMedias = maxRefreshedMedias;
+        this.popularPagesCount = popularPagesCount;
     }
 
     private void initHeaders(HttpHeaders headers) {
@@ -38,57 +113,210 @@ public class MediaRepository {
         );
     }
 
-    private void validateToken() {
-        RuntimeException invalidTokenException = new IllegalArgumentException("Invalid TMDB JWT Token");
+    @EventListener(ApplicationReadyEvent.class)
+    public void validateTokenInBackground() { // Startup never waits for TMDB
+        validateToken().subscribe();
+    }
+
+    @Scheduled(initialDelayString = "${cinephobia.tmdb.token-validation-interval}", fixedDelayString = "${cinephobia.tmdb.token-validation-interval}")
+    public void revalidateToken() {
+        if(tokenStatus != TokenStatus.VALID) {
+            validateToken().subscribe();
+        }
+    }
+
+    public Mono<TokenStatus> validateToken() {
         if(token == null || token.isBlank()) {
-            throw invalidTokenException;
+            return Mono.just(TokenStatus.INVALID)
+                    .doOnNext(this::setTokenStatus);
         }
-        client.get()
+        return client.get()
                 .uri("/authentication")
                 .headers(this::initHeaders)
                 .retrieve()
-                .onStatus(code -> code.isSameCodeAs(HttpStatus.FORBIDDEN), response -> Mono.error(invalidTokenException))
                 .toBodilessEntity()
-                .block();
+                .map(response -> TokenStatus.VALID)
+                .timeout(TIMEOUT_DURATION)
+                .onErrorResume(error -> {
+                    boolean rejected = error instanceof WebClientResponseException.Unauthorized ||
+                            error instanceof WebClientResponseException.Forbidden;
+                    if(!rejected) LOGGER.warn("Could not validate TMDB token", error);
+                    return Mono.just(rejected ? TokenStatus.INVALID : TokenStatus.UNREACHABLE);
+                })
+                .doOnNext(this::setTokenStatus);
     }
 
-    public Optional<Media> getMovie(Long id) {
-        return client.get()
-                .uri("/movie/{id}", id)
-                .headers(this::initHeaders)
-                .retrieve()
-                .bodyToMono(Media.class)
-                .onErrorResume(error -> Mono.empty())
-                .blockOptional(TIMEOUT_DURATION)
-                .map(media -> {
-                    media.setType(MediaType.MOVIE);
-                    return media;
+    private void setTokenStatus(TokenStatus status) {
+        if(status == TokenStatus.INVALID) {
+            LOGGER.error("Invalid TMDB JWT Token, medias are only served from local data");
+        }
+        tokenStatus = status;
+    }
+
+    public TokenStatus getTokenStatus() {
+        return tokenStatus;
+    }
+
+    public Mono<Media> getMovie(Long id) {
+        return getMedia(MediaType.MOVIE, id);
+    }
+
+    public Mono<Media> getSeries(Long id) {
+        return getMedia(MediaType.TV, id);
+    }
+
+    private Mono<Media> getMedia(MediaType type, Long id) {
+        String typeName = type.name().toLowerCase();
+        String cacheKey = typeName + '/' + id;
+
+        return Mono.defer(() -> Mono.justOrEmpty(mediaCache.getIfPresent(cacheKey)))
+                .switchIfEmpty(Mono.defer(() -> getStoredMedia(type, id, cacheKey)));
+    }
+
+    private Mono<Media> getStoredMedia(MediaType type, Long id, String cacheKey) {
+        return findStoredMedia(new MediaId(id, type))
+                .flatMap(storedMedia -> {
+                    if(isExpired(storedMedia)) {
+                        return fetchMedia(type, id, cacheKey)
+                                .switchIfEmpty(Mono.defer(() -> deleteStoredMedia(type, id, cacheKey))) // Removed from TMDB
+                                .onErrorResume(error -> Mono.just(storedMedia)); // A stale media is better than no media
+                    }
+                    mediaCache.put(cacheKey, storedMedia);
+                    return Mono.just(storedMedia);
+                })
+                .switchIfEmpty(Mono.defer(() -> fetchMedia(type, id, cacheKey)
+                        .onErrorResume(error -> {
+                            if(!(error instanceof CallNotPermittedException)) return Mono.empty();
+                            return Mono.error(new MediaUnavailableException("Media is temporarily unavailable")); // Rejected without asking TMDB, so it may well exist
+                        })));
+    }
+
+    private Mono<Media> findStoredMedia(MediaId mediaId) {
+        return Mono.fromCallable(() -> metadataRepository.findById(mediaId))
+                .subscribeOn(Schedulers.boundedElastic()) // JPA calls are blocking
+                .flatMap(Mono::justOrEmpty)
+                .onErrorResume(error -> {
+                    LOGGER.warn("Could not read stored media " + mediaId.getKey(), error);
+                    return Mono.empty();
                 });
     }
 
-    public Optional<Media> getSeries(Long id) {
-        return client.get()
-                .uri("/tv/{id}", id)
-                .headers(this::initHeaders)
-                .retrieve()
-                .bodyToMono(Media.class)
-                .onErrorResume(error -> Mono.empty())
-                .blockOptional(TIMEOUT_DURATION)
-                .map(media -> {
-                    media.setType(MediaType.TV);
-                    return media;
+    private boolean isExpired(Media media) {
+        return media.getUpdatedAt() == null ||
+                media.getUpdatedAt().plus(metadataExpiration).isBefore(Instant.now());
+    }
+
+    private Mono<Media> fetchMedia(MediaType type, Long id, String cacheKey) {
+        String typeName = type.name().toLowerCase();
+        return mediaCoalescer.coalesce(cacheKey, () -> callTMDB(client.get()
+                        .uri("/{type}/{id}", typeName, id)
+                        .headers(this::initHeaders)
+                        .retrieve()
+                        .bodyToMono(DataBuffer.class)
+                        .map(json -> DECODER.decodeMedia(json, type))
+                        .onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.empty())) // Unknown medias are not TMDB failures
+                .flatMap(this::storeMedia)
+                .doOnNext(searchIndex::index)
+                .doOnNext(media -> mediaCache.put(cacheKey, media))); // Unknown medias are not cached
+    }
+
+    private <T> Mono<T> callTMDB(Mono<T> request) {
+        return bulkhead.protect(circuitBreaker.protect(request.timeout(TIMEOUT_DURATION))); // A full bulkhead says nothing about TMDB health
+    }
+
+    private Mono<SearchResults> searchTMDB(String requestKey, Supplier<Mono<SearchResults>> request) {
+        return searchCoalescer.coalesce(requestKey, () -> callTMDB(request.get())
+                        .doOnNext(results -> searchIndex.index(results.getResults()))
+                        .doOnNext(results -> searchCache.put(requestKey, results)))
+                .onErrorResume(error -> {
+                    SearchResults lastResults = searchCache.getIfPresent(requestKey); // Served stale rather than failing
+                    if(lastResults == null) return Mono.error(error);
+                    LOGGER.debugf("Serving last known results for %s: %s", requestKey, error.getMessage());
+                    return Mono.just(lastResults);
                 });
     }
 
-    public SearchResults searchMedias(String search, int page) {
-        SearchResults moviesSearch = search(MediaType.MOVIE, search, page);
-        SearchResults seriesSearch = search(MediaType.TV, search, page);
+    private Mono<Media> storeMedia(Media media) {
+        media.setUpdatedAt(Instant.now());
+        return Mono.fromCallable(() -> metadataRepository.save(media))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(media)
+                .onErrorResume(error -> {
+                    LOGGER.warn("Could not store media " + media.getType().name().toLowerCase() + ':' + media.getId(), error);
+                    return Mono.just(media);
+                });
+    }
+
+    private Mono<Media> deleteStoredMedia(MediaType type, Long id, String cacheKey) {
+        MediaId mediaId = new MediaId(id, type);
+        return Mono.fromRunnable(() -> metadataRepository.deleteById(mediaId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(deleted -> {
+                    searchIndex.remove(mediaId);
+                    mediaCache.invalidate(cacheKey);
+                })
+                .onErrorResume(error -> {
+                    LOGGER.warn("Could not delete stored media " + mediaId.getKey(), error);
+                    return Mono.empty();
+                })
+                .then(Mono.empty());
+    }
+
+    @Scheduled(initialDelayString = "${cinephobia.tmdb.media.refresh-interval}", fixedDelayString = "${cinephobia.tmdb.media.refresh-interval}")
+    public void refreshStoredMedias() { // Refreshes medias before they expire, so readers never wait for TMDB
+        Instant refreshDate = Instant.now().minus(metadataExpiration.minus(metadataRefreshAhead));
+
+        long refreshedMedias = 0;
+        int remainingMedias = maxRefreshedMedias; // Each run is capped, the oldest medias go first and the others wait for the next run
+        List<Media> staleMedias = metadataRepository.findAllUpdatedBefore(refreshDate, Instant.EPOCH, 0L, "", Math.min(REFRESH_BATCH_SIZE, remainingMedias));
+        while(!staleMedias.isEmpty()) {
+            Long refreshed = Flux.fromIterable(staleMedias)
+                    .flatMap(media -> refreshMedia(media.getType(), media.getId()), MAX_CONCURRENT_REFRESHES)
+                    .count()
+                    .block();
+            refreshedMedias += refreshed != null ? refreshed : 0;
+
+            remainingMedias -= staleMedias.size();
+            if(remainingMedias <= 0) break;
+
+            Media last = staleMedias.get(staleMedias.size() - 1); // Medias that failed to refresh are retried on next run
+            staleMedias = metadataRepository.findAllUpdatedBefore(refreshDate, last.getUpdatedAt(), last.getId(), last.getType().name(), Math.min(REFRESH_BATCH_SIZE, remainingMedias));
+        }
+
+        if(refreshedMedias > 0) {
+            LOGGER.infof("Refreshed %d stored medias", refreshedMedias);
+        }
+    }
+
+    private Mono<Media> refreshMedia(MediaType type, Long id) {
+        String cacheKey = type.name().toLowerCase() + '/' + id;
+        return fetchMedia(type, id, cacheKey)
+                .switchIfEmpty(Mono.defer(() -> deleteStoredMedia(type, id, cacheKey)))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    public Mono<SearchResults> searchMedias(String search, int page) {
+        Mono<Optional<SearchResults>> moviesSearch = searchIfAvailable(MediaType.MOVIE, search, page);
+        Mono<Optional<SearchResults>> seriesSearch = searchIfAvailable(MediaType.TV, search, page);
+
+        return Mono.zip(moviesSearch, seriesSearch) // Both searches are sent at the same time
+                .map(searches -> mergeSearchResults(searches.getT1(), searches.getT2(), page));
+    }
+
+    private SearchResults mergeSearchResults(Optional<SearchResults> optionalMovies, Optional<SearchResults> optionalSeries, int page) {
+        if(optionalMovies.isEmpty() && optionalSeries.isEmpty()) {
+            throw new TMDBException("Could not search medias");
+        }
+        SearchResults moviesSearch = optionalMovies.orElseGet(() -> new SearchResults(page, 0, 0, List.of()));
+        SearchResults seriesSearch = optionalSeries.orElseGet(() -> new SearchResults(page, 0, 0, List.of()));
 
         int totalResults = moviesSearch.getTotalResults() + seriesSearch.getTotalResults();
         int totalPages = Math.max(moviesSearch.getTotalPages(), seriesSearch.getTotalPages());
         List<Media> medias = getMediaList(seriesSearch, moviesSearch);
 
-        return new SearchResults(page, totalPages, totalResults, medias);
+        SearchResults results = new SearchResults(page, totalPages, totalResults, medias);
+        results.setPartial(optionalMovies.isEmpty() || optionalSeries.isEmpty());
+        return results;
     }
 
     private List<Media> getMediaList(SearchResults seriesSearch, SearchResults moviesSearch) {
@@ -113,46 +341,88 @@ public class MediaRepository {
         return medias;
     }
 
-    private SearchResults search(MediaType type, String search, int page) {
+    private Mono<Optional<SearchResults>> searchIfAvailable(MediaType type, String search, int page) {
+        return search(type, search, page)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(error -> {
+                    LOGGER.warn("Could not search " + type.name().toLowerCase(), error);
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private Mono<SearchResults> search(MediaType type, String search, int page) {
         String typeName = type.name().toLowerCase();
-        SearchResults results = client.get()
-                .uri(uri -> uri
-                        .pathSegment("search", typeName)
-                        .queryParam("query", "{search}")
-                        .queryParam("page", "{page}")
-                        .build(search, page))
-                .headers(this::initHeaders)
-                .retrieve()
-                .bodyToMono(SearchResults.class)
-                .blockOptional(TIMEOUT_DURATION)
-                .orElseThrow(() -> new TMDBException("Could not search " + typeName));
-
-        List<Media> newResults = results.getResults().stream()
-                .map(media -> {
-                    media.setType(type);
-                    return media;
-                }).toList();
-        results.setResults(newResults);
-        return results;
+        String query = normalizeQuery(search);
+        SearchCursor cursor = searchCursors.get(typeName + ':' + query, key -> new SearchCursor(MAX_CURSOR_PAGES));
+
+        Optional<SearchResults> knownPage = cursor.getPage(page);
+        if(knownPage.isPresent()) {
+            return Mono.just(knownPage.get());
+        }
+
+        String requestKey = "search/%s?query=%s&page=%s".formatted(typeName, query, page);
+        return searchTMDB(requestKey, () -> client.get()
+                        .uri(uri -> uri
+                                .pathSegment("search", typeName)
+                                .queryParam("query", "{search}")
+                                .queryParam("page", "{page}")
+                                .build(query, page))
+                        .headers(this::initHeaders)
+                        .retrieve()
+                        .bodyToMono(DataBuffer.class)
+                        .map(json -> DECODER.decodeSearchResults(json, type))
+                        .doOnNext(results -> cursor.addPage(page, results)));
     }
 
-    public SearchResults getPopularMovies(int page) {
-        SearchResults results = client.get()
-                .uri("/movie/popular?page={page}", page)
-                .headers(this::initHeaders)
-                .retrieve()
-                .bodyToMono(SearchResults.class)
-                .blockOptional(TIMEOUT_DURATION)
-                .orElseThrow(() -> new TMDBException("Could not get popular movies"));
-
-        List<Media> newResults = results.getResults().stream()
-                .map(media -> {
-                    media.setType(MediaType.MOVIE);
-                    return media;
-                })
+    private String normalizeQuery(String search) { // TMDB searches ignore case and extra spaces
+        return WHITESPACES_PATTERN.matcher(search.strip())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public Mono<SearchResults> getPopularMovies(int page) {
+        SearchResults snapshotResults = popularMovies.get().get(page);
+        if(snapshotResults != null) {
+            return Mono.just(snapshotResults);
+        }
+        return fetchPopularMovies(page); // Pages after the snapshot, or before its first refresh
+    }
+
+    public List<Media> getPopularMoviesSnapshot() { // Most popular first
+        return popularMovies.get().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .flatMap(snapshotPage -> snapshotPage.getValue().getResults().stream())
                 .toList();
-        results.setResults(newResults);
-        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${cinephobia.tmdb.popular.refresh-interval}")
+    public void refreshPopularMovies() {
+        Map<Integer, SearchResults> previousSnapshot = popularMovies.get();
+        Map<Integer, SearchResults> fetchedPages = Flux.range(1, popularPagesCount)
+                .flatMap(page -> fetchPopularMovies(page)
+                        .map(results -> Map.entry(page, results))
+                        .onErrorResume(error -> {
+                            LOGGER.warn("Could not refresh popular movies page " + page, error);
+                            return Mono.empty();
+                        }), MAX_CONCURRENT_POPULAR_REFRESHES)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block();
+
+        Map<Integer, SearchResults> snapshot = new HashMap<>(previousSnapshot); // Pages that failed keep their previous results
+        if(fetchedPages != null) snapshot.putAll(fetchedPages);
+        popularMovies.set(Map.copyOf(snapshot));
+    }
+
+    private Mono<SearchResults> fetchPopularMovies(int page) {
+        String requestKey = "movie/popular?page=" + page;
+        return searchTMDB(requestKey, () -> client.get()
+                        .uri("/movie/popular?page={page}", page)
+                        .headers(this::initHeaders)
+                        .retrieve()
+                        .bodyToMono(DataBuffer.class)
+                        .map(json -> DECODER.decodeSearchResults(json, MediaType.MOVIE)))
+                .switchIfEmpty(Mono.error(() -> new TMDBException("Could not get popular movies")));
     }
 
 }
@@ -0,0 +1,354 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.SearchSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jboss.logging.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+@Repository
+public class MediaSearchIndex implements MeterBinder { // In-memory inverted index over media titles and overviews
+
+    private static final Logger LOGGER = Logger.getLogger(MediaSearchIndex.class);
+
+    public static final int PAGE_SIZE = 20;
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int MAX_PREFIX_EXPANSIONS = 128;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_TWO_TYPOS_LENGTH = 8;
+    private static final int MAX_FUZZY_COMPARISONS = 2048;
+
+    private static final float TITLE_WEIGHT = 4;
+    private static final float OVERVIEW_WEIGHT = 1;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final float FUZZY_FACTOR = 0.25f;
+
+    private static final Pattern ACCENTS_PATTERN = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS_PATTERN = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private record IndexedMedia(Media media, Set<String> terms) {}
+
+    private record ScoredMedia(Media media, float score) {}
+
+    private record TokenMatch(Map<String, Float> terms, int postingsCount) {}
+
+    private record TermShape(char firstLetter, int length) {}
+
+    private static final Comparator<ScoredMedia> RANKING = (first, second) -> {
+        int scoreComparison = Float.compare(second.score(), first.score());
+        if(scoreComparison != 0) return scoreComparison;
+        return Comparator.nullsLast(String::compareTo).compare(first.media().getTitle(), second.media().getTitle());
+    };
+
+    private final MediaMetadataRepository metadataRepository;
+    private final int maximumMedias;
+
+    private final Map<MediaId, IndexedMedia> medias = new ConcurrentHashMap<>();
+    private final Set<MediaId> indexOrder = new LinkedHashSet<>(); // Least recently indexed first, guarded by the index lock
+    private volatile long version; // Changes with the indexed medias, written under the index lock
+    private final ConcurrentSkipListMap<String, Map<MediaId, Float>> postings = new ConcurrentSkipListMap<>(); // Sorted for prefix lookups, valued by field weight
+    private final Map<TermShape, Set<String>> termsByShape = new ConcurrentHashMap<>(); // Only terms of a close length can be within typos
+
+    public MediaSearchIndex(MediaMetadataRepository metadataRepository,
+                            @Value("${cinephobia.search.index.maximum-medias}") int maximumMedias) {
+        this.metadataRepository = metadataRepository;
+        this.maximumMedias = maximumMedias;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredMediasInBackground() { // Searches fall back to TMDB until the index is loaded
+        Mono.fromRunnable(this::loadStoredMedias)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(error -> LOGGER.warn("Could not load stored medias into the search index", error))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    public void loadStoredMedias() { // The media table is the durable copy of the index
+        Pageable pageRequest = PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("updatedAt")); // Most recent medias are kept when the index is full
+        Page<Media> storedMedias;
+        do {
+            storedMedias = metadataRepository.findAll(pageRequest);
+            storedMedias.forEach(this::index);
+            pageRequest = storedMedias.nextPageable();
+        } while(storedMedias.hasNext());
+        LOGGER.infof("Indexed %d stored medias", medias.size());
+    }
+
+    public synchronized void index(Media media) {
+        if(media.getId() == null || media.getType() == null) return;
+        MediaId mediaId = new MediaId(media.getId(), media.getType());
+
+        IndexedMedia previousMedia = medias.get(mediaId);
+        if(previousMedia != null && previousMedia.media().equals(media)) { // Seen again unchanged, only its eviction order moves
+            indexOrder.remove(mediaId);
+            indexOrder.add(mediaId);
+            return;
+        }
+        if(previousMedia != null) {
+            removePostings(mediaId, previousMedia.terms());
+        }
+        version++;
+
+        Map<String, Float> termWeights = new HashMap<>();
+        tokenize(media.getDescription()).forEach(term -> termWeights.put(term, OVERVIEW_WEIGHT));
+        tokenize(media.getTitle()).forEach(term -> termWeights.put(term, TITLE_WEIGHT));
+
+        medias.put(mediaId, new IndexedMedia(media, termWeights.keySet()));
+        termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, this::addTerm)
+                .put(mediaId, weight));
+
+        indexOrder.remove(mediaId); // Medias still passing through the repository are evicted last
+        indexOrder.add(mediaId);
+        if(indexOrder.size() > maximumMedias) {
+            remove(indexOrder.iterator().next());
+        }
+    }
+
+    public void index(Collection<Media> medias) {
+        medias.forEach(this::index);
+    }
+
+    public synchronized void remove(MediaId mediaId) {
+        indexOrder.remove(mediaId);
+        IndexedMedia previousMedia = medias.remove(mediaId);
+        if(previousMedia != null) {
+            removePostings(mediaId, previousMedia.terms());
+            version++;
+        }
+    }
+
+    private void removePostings(MediaId mediaId, Set<String> terms) {
+        for(String term : terms) {
+            postings.computeIfPresent(term, (key, termPostings) -> {
+                termPostings.remove(mediaId);
+                if(!termPostings.isEmpty()) return termPostings;
+                removeTerm(term);
+                return null;
+            });
+        }
+    }
+
+    private Map<MediaId, Float> addTerm(String term) {
+        termsByShape.computeIfAbsent(getShape(term), shape -> ConcurrentHashMap.newKeySet())
+                .add(term);
+        return new ConcurrentHashMap<>();
+    }
+
+    private void removeTerm(String term) {
+        termsByShape.computeIfPresent(getShape(term), (shape, shapeTerms) -> {
+            shapeTerms.remove(term);
+            return shapeTerms.isEmpty() ? null : shapeTerms;
+        });
+    }
+
+    private static TermShape getShape(String term) {
+        return new TermShape(term.charAt(0), term.length());
+    }
+
+    public SearchResults search(String query, int page) {
+        List<TokenMatch> tokenMatches = tokenize(query).stream()
+                .map(this::getMatchingTerms)
+                .map(terms -> new TokenMatch(terms, countPostings(terms)))
+                .sorted(Comparator.comparingInt(TokenMatch::postingsCount)) // Every token must match, so the rarest one bounds the candidates
+                .toList();
+        if(tokenMatches.isEmpty()) {
+            return indexResults(new SearchResults(page, 0, 0, List.of()));
+        }
+
+        Map<MediaId, Float> scores = scoreToken(tokenMatches.get(0).terms());
+        for(TokenMatch tokenMatch : tokenMatches.subList(1, tokenMatches.size())) {
+            if(scores.isEmpty()) break;
+            if((long) scores.size() * tokenMatch.terms().size() < tokenMatch.postingsCount()) {
+                scoreCandidates(scores, tokenMatch.terms()); // Common tokens like "the" are only looked up for the candidates
+            } else {
+                Map<MediaId, Float> tokenScores = scoreToken(tokenMatch.terms());
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((mediaId, score) -> score + tokenScores.get(mediaId));
+            }
+        }
+
+        int resultsLimit = page * PAGE_SIZE; // Only the requested page and those before it are ranked
+        PriorityQueue<ScoredMedia> bestMatches = new PriorityQueue<>(resultsLimit + 1, RANKING.reversed());
+        scores.forEach((mediaId, score) -> {
+            IndexedMedia indexedMedia = medias.get(mediaId);
+            if(indexedMedia == null) return;
+            ScoredMedia scoredMedia = new ScoredMedia(indexedMedia.media(), score);
+            if(bestMatches.size() < resultsLimit) {
+                bestMatches.add(scoredMedia);
+            } else if(RANKING.compare(scoredMedia, bestMatches.peek()) < 0) {
+                bestMatches.poll();
+                bestMatches.add(scoredMedia);
+            }
+        });
+
+        List<ScoredMedia> rankedMatches = new ArrayList<>(bestMatches);
+        rankedMatches.sort(RANKING);
+        int totalResults = scores.size();
+        int totalPages = (totalResults + PAGE_SIZE - 1) / PAGE_SIZE;
+        List<Media> results = rankedMatches.stream()
+                .skip((long) (page - 1) * PAGE_SIZE)
+                .map(ScoredMedia::media)
+                .toList();
+        return indexResults(new SearchResults(page, totalPages, totalResults, results));
+    }
+
+    private static SearchResults indexResults(SearchResults results) {
+        results.setSource(SearchSource.INDEX);
+        return results;
+    }
+
+    private Map<String, Float> getMatchingTerms(String token) { // Indexed terms a query token stands for, with their match factor
+        Map<String, Float> matchingTerms = new HashMap<>();
+        if(postings.containsKey(token)) {
+            matchingTerms.put(token, 1f);
+        }
+        if(token.length() >= MIN_PREFIX_LENGTH) {
+            for(String term : postings.subMap(token, false, token + Character.MAX_VALUE, true).keySet()) {
+                if(matchingTerms.size() >= MAX_PREFIX_EXPANSIONS) break;
+                matchingTerms.put(term, PREFIX_FACTOR);
+            }
+        }
+        if(matchingTerms.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            addFuzzyTerms(token, matchingTerms);
+        }
+        return matchingTerms;
+    }
+
+    private void addFuzzyTerms(String token, Map<String, Float> matchingTerms) {
+        int maxTypos = getMaxTypos(token);
+        int comparisons = 0;
+        for(int lengthOffset = 0; lengthOffset <= 2 * maxTypos; lengthOffset++) { // Same length first, then one shorter, one longer...
+            int length = token.length() + (lengthOffset % 2 == 0 ? lengthOffset / 2 : -(lengthOffset + 1) / 2);
+            Set<String> shapeTerms = termsByShape.get(new TermShape(token.charAt(0), length)); // Typos on the first letter are rare
+            if(shapeTerms == null) continue;
+
+            for(String term : shapeTerms) {
+                if(comparisons++ >= MAX_FUZZY_COMPARISONS) return;
+                if(isWithinTypos(token, term, maxTypos)) {
+                    matchingTerms.put(term, FUZZY_FACTOR);
+                }
+            }
+        }
+    }
+
+    private int countPostings(Map<String, Float> tokenTerms) {
+        int count = 0;
+        for(String term : tokenTerms.keySet()) {
+            count += postings.getOrDefault(term, Map.of()).size();
+        }
+        return count;
+    }
+
+    private Map<MediaId, Float> scoreToken(Map<String, Float> tokenTerms) { // Best match of the token in each media
+        Map<MediaId, Float> scores = new HashMap<>();
+        tokenTerms.forEach((term, factor) -> postings.getOrDefault(term, Map.of())
+                .forEach((mediaId, weight) -> scores.merge(mediaId, factor * weight, Math::max)));
+        return scores;
+    }
+
+    private void scoreCandidates(Map<MediaId, Float> scores, Map<String, Float> tokenTerms) {
+        Iterator<Map.Entry<MediaId, Float>> candidates = scores.entrySet().iterator();
+        while(candidates.hasNext()) {
+            Map.Entry<MediaId, Float> candidate = candidates.next();
+            float tokenScore = 0;
+            for(Map.Entry<String, Float> term : tokenTerms.entrySet()) {
+                Float weight = postings.getOrDefault(term.getKey(), Map.of()).get(candidate.getKey());
+                if(weight != null) tokenScore = Math.max(tokenScore, term.getValue() * weight);
+            }
+            if(tokenScore == 0) {
+                candidates.remove();
+            } else {
+                candidate.setValue(candidate.getValue() + tokenScore);
+            }
+        }
+    }
+
+    private int getMaxTypos(String token) {
+        return token.length() >= MIN_TWO_TYPOS_LENGTH ? 2 : 1;
+    }
+
+    static boolean isWithinTypos(String first, String second, int maxTypos) { // Levenshtein distance, abandoned once over the limit
+        if(Math.abs(first.length() - second.length()) > maxTypos) return false;
+
+        int[] previousRow = new int[second.length() + 1];
+        int[] currentRow = new int[second.length() + 1];
+        for(int j = 0; j <= second.length(); j++) previousRow[j] = j;
+
+        for(int i = 1; i <= first.length(); i++) {
+            currentRow[0] = i;
+            int rowMinimum = currentRow[0];
+            for(int j = 1; j <= second.length(); j++) {
+                int substitution = previousRow[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                currentRow[j] = Math.min(substitution, Math.min(previousRow[j], currentRow[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, currentRow[j]);
+            }
+            if(rowMinimum > maxTypos) return false;
+
+            int[] swappedRow = previousRow;
+            previousRow = currentRow;
+            currentRow = swappedRow;
+        }
+        return previousRow[second.length()] <= maxTypos;
+    }
+
+    static Set<String> tokenize(String text) {
+        if(text == null || text.isBlank()) return Set.of();
+
+        Set<String> terms = new LinkedHashSet<>();
+        for(String term : normalize(text).split(" ")) {
+            if(!term.isEmpty()) terms.add(term);
+        }
+        return terms;
+    }
+
+    public static String normalize(String text) { // "L'Été 85" becomes "l ete 85"
+        String foldedText = ACCENTS_PATTERN.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS_PATTERN.matcher(foldedText)
+                .replaceAll(" ")
+                .strip();
+    }
+
+    public List<Media> getMedias() {
+        return medias.values().stream()
+                .map(IndexedMedia::media)
+                .toList();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getMediaCount() {
+        return medias.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.index.medias", this, MediaSearchIndex::getMediaCount)
+                .description("Medias in the local search index")
+                .register(registry);
+    }
+}
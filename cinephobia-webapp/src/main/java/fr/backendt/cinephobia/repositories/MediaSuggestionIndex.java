@@ -0,0 +1,197 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.MediaWarnCount;
+import org.jboss.logging.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Repository
+public class MediaSuggestionIndex { // Sorted title prefixes over known medias, rebuilt in the background
+
+    private static final Logger LOGGER = Logger.getLogger(MediaSuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 8;
+    private static final int MAX_KEY_LENGTH = 48;
+    private static final int MAX_SCANNED_KEYS = 256;
+    private static final int STORED_MEDIAS_BATCH_SIZE = 500;
+
+    /**
+     * Medias are sorted by rank, so the best suggestions are the smallest media indexes.
+     * Each title is keyed from every word start, so "dark kn" suggests "The Dark Knight".
+     * Prefixes sharing too many keys to be scanned have their suggestions precomputed, whatever their length.
+     */
+    private record Snapshot(Media[] medias, String[] keys, int[] keyMedias, Map<String, int[]> heavyPrefixes) {}
+
+    private record Key(String key, int media) {}
+
+    private record Inputs(long searchIndexVersion, Map<MediaId, Long> warnCounts, List<Media> popularMovies) {}
+
+    private final MediaSearchIndex searchIndex;
+    private final MediaRepository mediaRepository;
+    private final MediaWarnSummaryRepository summaryRepository;
+    private final MediaMetadataRepository metadataRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(new Media[0], new String[0], new int[0], Map.of());
+    private Inputs lastInputs; // Of the current snapshot, guarded by the rebuild lock
+
+    public MediaSuggestionIndex(MediaSearchIndex searchIndex, MediaRepository mediaRepository,
+                                MediaWarnSummaryRepository summaryRepository, MediaMetadataRepository metadataRepository) {
+        this.searchIndex = searchIndex;
+        this.mediaRepository = mediaRepository;
+        this.summaryRepository = summaryRepository;
+        this.metadataRepository = metadataRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${cinephobia.search.suggest.rebuild-interval}")
+    public synchronized void rebuild() {
+        long searchIndexVersion = searchIndex.getVersion(); // Read first, so a change made during the rebuild triggers the next one
+        Map<MediaId, Long> warnCounts = summaryRepository.countAllByMedia().stream()
+                .collect(Collectors.toMap(MediaWarnCount::getMediaKey, MediaWarnCount::getWarnCount));
+        List<Media> popularMovies = mediaRepository.getPopularMoviesSnapshot();
+
+        Inputs inputs = new Inputs(searchIndexVersion, warnCounts, popularMovies);
+        if(inputs.equals(lastInputs)) return; // Nothing to sort again
+
+        Map<MediaId, Integer> popularityRanks = new HashMap<>();
+        for(int rank = 0; rank < popularMovies.size(); rank++) {
+            popularityRanks.putIfAbsent(getMediaId(popularMovies.get(rank)), rank);
+        }
+
+        Map<MediaId, Media> knownMedias = new HashMap<>();
+        popularMovies.forEach(media -> knownMedias.put(getMediaId(media), media));
+        searchIndex.getMedias().forEach(media -> knownMedias.put(getMediaId(media), media));
+        addStoredMedias(warnCounts.keySet(), knownMedias); // Medias with warns are suggested even once out of the search index
+
+        Comparator<Media> ranking = Comparator.<Media>comparingLong(media -> warnCounts.getOrDefault(getMediaId(media), 0L)).reversed()
+                .thenComparingInt(media -> popularityRanks.getOrDefault(getMediaId(media), Integer.MAX_VALUE))
+                .thenComparingInt(media -> media.getTitle().length())
+                .thenComparing(Media::getTitle);
+        Media[] medias = knownMedias.values().stream()
+                .filter(media -> media.getTitle() != null && !media.getTitle().isBlank())
+                .sorted(ranking)
+                .toArray(Media[]::new);
+
+        snapshot = buildSnapshot(medias);
+        lastInputs = inputs;
+        LOGGER.debugf("Rebuilt suggestions over %d medias", medias.length);
+    }
+
+    private void addStoredMedias(Collection<MediaId> mediaIds, Map<MediaId, Media> knownMedias) {
+        List<MediaId> missingIds = mediaIds.stream()
+                .filter(mediaId -> !knownMedias.containsKey(mediaId))
+                .toList();
+        for(int start = 0; start < missingIds.size(); start += STORED_MEDIAS_BATCH_SIZE) {
+            List<MediaId> batch = missingIds.subList(start, Math.min(start + STORED_MEDIAS_BATCH_SIZE, missingIds.size()));
+            metadataRepository.findAllById(batch).forEach(media -> knownMedias.put(getMediaId(media), media));
+        }
+    }
+
+    private MediaId getMediaId(Media media) {
+        return new MediaId(media.getId(), media.getType());
+    }
+
+    private Snapshot buildSnapshot(Media[] medias) {
+        List<Key> mediaKeys = new ArrayList<>();
+        for(int mediaIndex = 0; mediaIndex < medias.length; mediaIndex++) {
+            String title = MediaSearchIndex.normalize(medias[mediaIndex].getTitle());
+            int wordStart = title.isEmpty() ? -1 : 0;
+            while(wordStart >= 0) {
+                mediaKeys.add(new Key(truncate(title.substring(wordStart)), mediaIndex));
+                int separator = title.indexOf(' ', wordStart);
+                wordStart = separator < 0 ? -1 : separator + 1;
+            }
+        }
+        mediaKeys.sort(Comparator.comparing(Key::key).thenComparingInt(Key::media));
+
+        String[] keys = new String[mediaKeys.size()];
+        int[] keyMedias = new int[mediaKeys.size()];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = mediaKeys.get(i).key();
+            keyMedias[i] = mediaKeys.get(i).media();
+        }
+        return new Snapshot(medias, keys, keyMedias, findHeavyPrefixes(keys, keyMedias));
+    }
+
+    private Map<String, int[]> findHeavyPrefixes(String[] keys, int[] keyMedias) {
+        Map<String, int[]> heavyPrefixes = new HashMap<>();
+        Deque<int[]> heavyGroups = new ArrayDeque<>(); // Start, end and prefix length of the key ranges to split further
+        heavyGroups.push(new int[] {0, keys.length, 1});
+        while(!heavyGroups.isEmpty()) {
+            int[] heavyGroup = heavyGroups.pop();
+            int prefixLength = heavyGroup[2];
+            int groupStart = heavyGroup[0];
+            while(groupStart < heavyGroup[1]) {
+                if(keys[groupStart].length() < prefixLength) {
+                    groupStart++;
+                    continue;
+                }
+                String prefix = keys[groupStart].substring(0, prefixLength);
+                int groupEnd = groupStart;
+                while(groupEnd < heavyGroup[1] && keys[groupEnd].startsWith(prefix)) groupEnd++;
+
+                if(groupEnd - groupStart > MAX_SCANNED_KEYS) { // Only a heavy prefix can have heavy longer prefixes
+                    heavyPrefixes.put(prefix, findBestMedias(keyMedias, groupStart, groupEnd));
+                    if(prefixLength < MAX_KEY_LENGTH) {
+                        heavyGroups.push(new int[] {groupStart, groupEnd, prefixLength + 1});
+                    }
+                }
+                groupStart = groupEnd;
+            }
+        }
+        return heavyPrefixes;
+    }
+
+    public List<Media> suggest(String query) {
+        if(query == null) return List.of();
+        String prefix = truncate(MediaSearchIndex.normalize(query));
+        if(prefix.isEmpty()) return List.of();
+
+        Snapshot currentSnapshot = snapshot;
+        int[] bestMedias = currentSnapshot.heavyPrefixes().get(prefix);
+        if(bestMedias == null) {
+            int start = Arrays.binarySearch(currentSnapshot.keys(), prefix);
+            if(start < 0) start = -start - 1;
+
+            int end = start;
+            String[] keys = currentSnapshot.keys();
+            while(end < keys.length && end - start < MAX_SCANNED_KEYS && keys[end].startsWith(prefix)) end++;
+            bestMedias = findBestMedias(currentSnapshot.keyMedias(), start, end);
+        }
+        return Arrays.stream(bestMedias)
+                .mapToObj(mediaIndex -> currentSnapshot.medias()[mediaIndex])
+                .toList();
+    }
+
+    private int[] findBestMedias(int[] keyMedias, int start, int end) { // Smallest distinct media indexes, in order
+        int[] bestMedias = new int[MAX_SUGGESTIONS];
+        int count = 0;
+        for(int i = start; i < end; i++) {
+            int mediaIndex = keyMedias[i];
+            if(count == MAX_SUGGESTIONS && mediaIndex >= bestMedias[count - 1]) continue;
+
+            int position = Arrays.binarySearch(bestMedias, 0, count, mediaIndex);
+            if(position >= 0) continue;
+            position = -position - 1;
+
+            int moved = Math.min(count, MAX_SUGGESTIONS - 1) - position;
+            System.arraycopy(bestMedias, position, bestMedias, position + 1, moved);
+            bestMedias[position] = mediaIndex;
+            if(count < MAX_SUGGESTIONS) count++;
+        }
+        return Arrays.copyOf(bestMedias, count);
+    }
+
+    private String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    public int getKeyCount() {
+        return snapshot.keys().length;
+    }
+
+}
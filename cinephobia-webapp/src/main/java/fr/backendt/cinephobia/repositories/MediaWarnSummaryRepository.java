@@ -0,0 +1,84 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.MediaWarnCount;
+import fr.backendt.cinephobia.models.MediaWarnSummary;
+import fr.backendt.cinephobia.models.MediaWarnSummaryId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MediaWarnSummaryRepository extends JpaRepository<MediaWarnSummary, MediaWarnSummaryId> {
+
+    @EntityGraph(attributePaths = "trigger")
+    @Query("SELECT s FROM MediaWarnSummary s WHERE s.mediaId = :mediaId AND s.mediaType = :mediaType AND s.warnCount > 0 ORDER BY s.warnCount DESC") // Emptied summaries stay until the next rebuild
+    List<MediaWarnSummary> findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(Long mediaId, MediaType mediaType);
+
+    @Query("SELECT new fr.backendt.cinephobia.models.MediaWarnCount(s.mediaId, s.mediaType, SUM(s.warnCount)) FROM MediaWarnSummary s GROUP BY s.mediaId, s.mediaType HAVING SUM(s.warnCount) > 0")
+    List<MediaWarnCount> countAllByMedia();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "media_warn_summary")) // Otherwise the whole second-level cache is invalidated
+    @Query(value = """
+            INSERT INTO media_warn_summary(media_id, media_type, trigger_id, warn_count, exposition_total, max_exposition_level)
+            VALUES (:mediaId, :mediaType, :triggerId, 1, :expositionLevel, :expositionLevel) AS added
+            ON DUPLICATE KEY UPDATE warn_count = media_warn_summary.warn_count + 1,
+                exposition_total = media_warn_summary.exposition_total + added.exposition_total,
+                max_exposition_level = GREATEST(media_warn_summary.max_exposition_level, added.max_exposition_level)
+            """, nativeQuery = true)
+    void addWarn(Long mediaId, String mediaType, Long triggerId, int expositionLevel);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "media_warn_summary"))
+    @Query(value = """
+            INSERT INTO media_warn_summary(media_id, media_type, trigger_id, warn_count, exposition_total, max_exposition_level)
+            SELECT * FROM (
+                SELECT media_id, media_type, trigger_id, 1 AS warn_count, exposition_level AS exposition_total, exposition_level AS max_exposition_level
+                FROM warn WHERE id = :warnId
+            ) AS added
+            ON DUPLICATE KEY UPDATE warn_count = media_warn_summary.warn_count + 1,
+                exposition_total = media_warn_summary.exposition_total + added.exposition_total,
+                max_exposition_level = GREATEST(media_warn_summary.max_exposition_level, added.max_exposition_level)
+            """, nativeQuery = true)
+    void addWarnById(Long warnId);
+
+    /* Must run before the warn row is changed or deleted, a null owner matches any user.
+       An emptied summary is kept at zero, and dropped by the scheduled rebuild */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "media_warn_summary"))
+    @Query(value = """
+            UPDATE media_warn_summary summary
+            JOIN warn removed ON summary.media_id = removed.media_id AND summary.media_type = removed.media_type AND summary.trigger_id = removed.trigger_id
+            SET summary.warn_count = summary.warn_count - 1,
+                summary.exposition_total = summary.exposition_total - removed.exposition_level,
+                summary.max_exposition_level = (
+                    SELECT COALESCE(MAX(other.exposition_level), 0) FROM warn other
+                    WHERE other.media_id = removed.media_id AND other.media_type = removed.media_type
+                    AND other.trigger_id = removed.trigger_id AND other.id <> removed.id)
+            WHERE removed.id = :warnId AND (:ownerId IS NULL OR removed.user_id = :ownerId)
+            """, nativeQuery = true)
+    void removeWarn(Long warnId, Long ownerId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "media_warn_summary"))
+    @Query(value = "DELETE FROM media_warn_summary", nativeQuery = true)
+    void deleteAllSummaries();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "media_warn_summary"))
+    @Query(value = """
+            INSERT INTO media_warn_summary(media_id, media_type, trigger_id, warn_count, exposition_total, max_exposition_level)
+            SELECT media_id, media_type, trigger_id, COUNT(*), SUM(exposition_level), MAX(exposition_level) FROM warn
+            GROUP BY media_id, media_type, trigger_id
+            """, nativeQuery = true)
+    void insertAllSummaries();
+
+}
@@ -0,0 +1,168 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.PosterSize;
+import org.jboss.logging.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Repository
+public class PosterRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(PosterRepository.class);
+    private static final Duration TIMEOUT_DURATION = Duration.ofSeconds(20);
+    private static final Pattern POSTER_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+\\.(jpg|png)");
+    private static final String DOWNLOAD_PREFIX = "download-";
+    private static final String DOWNLOAD_SUFFIX = ".tmp";
+    private static final double EVICTION_TARGET_RATIO = 0.9; // Evicting below the maximum leaves room for the next downloads
+
+    private final WebClient client;
+    private final RequestCoalescer<String, Path> coalescer;
+
+    private final Path cacheDirectory;
+    private final long maximumSize;
+    private final long evictionTargetSize;
+    private final AtomicLong currentSize;
+
+    public PosterRepository(WebClient tmdbImageAPI, RequestCoalescer<String, Path> tmdbPosterCoalescer,
+                            @Value("${cinephobia.poster.cache.directory}") String cacheDirectory,
+                            @Value("${cinephobia.poster.cache.maximum-size}") DataSize maximumSize) throws IOException {
+        this.client = tmdbImageAPI;
+        this.coalescer = tmdbPosterCoalescer;
+        this.cacheDirectory = Files.createDirectories(Path.of(cacheDirectory));
+        this.maximumSize = maximumSize.toBytes();
+        this.evictionTargetSize = (long) (this.maximumSize * EVICTION_TARGET_RATIO);
+        deleteInterruptedDownloads();
+        this.currentSize = new AtomicLong(getCachedFiles().stream() // Posters cached before a restart are kept
+                .mapToLong(file -> file.getValue().size())
+                .sum());
+    }
+
+    public Mono<Path> getPoster(PosterSize size, String posterName) {
+        if(!POSTER_NAME_PATTERN.matcher(posterName).matches()) { // Never resolve a path outside the cache directory
+            return Mono.empty();
+        }
+        Path posterFile = cacheDirectory.resolve(size.getName()).resolve(posterName);
+
+        return Mono.fromCallable(() -> touch(posterFile))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(Boolean::booleanValue)
+                .map(found -> posterFile)
+                .switchIfEmpty(Mono.defer(() -> downloadPoster(size, posterName, posterFile)));
+    }
+
+    private boolean touch(Path posterFile) throws IOException {
+        if(!Files.exists(posterFile)) return false;
+        Files.setLastModifiedTime(posterFile, FileTime.fromMillis(System.currentTimeMillis())); // Last modification is the last access
+        return true;
+    }
+
+    private Mono<Path> downloadPoster(PosterSize size, String posterName, Path posterFile) {
+        String requestKey = size.getName() + '/' + posterName;
+        return coalescer.coalesce(requestKey, () -> Mono.fromCallable(() -> {
+                            Files.createDirectories(posterFile.getParent());
+                            return Files.createTempFile(cacheDirectory, DOWNLOAD_PREFIX, DOWNLOAD_SUFFIX);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(temporaryFile -> {
+                            Flux<DataBuffer> poster = client.get()
+                                    .uri("/{size}/{poster}", size.getName(), posterName)
+                                    .retrieve()
+                                    .bodyToFlux(DataBuffer.class); // Streamed to disk, never fully loaded in memory
+                            return DataBufferUtils.write(poster, temporaryFile)
+                                    .then(Mono.fromCallable(() -> storePoster(temporaryFile, posterFile))
+                                            .subscribeOn(Schedulers.boundedElastic()))
+                                    .onErrorResume(error -> Mono.fromRunnable(() -> deleteQuietly(temporaryFile))
+                                            .then(Mono.error(error)));
+                        })
+                        .timeout(TIMEOUT_DURATION)
+                        .onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.empty()))
+                .onErrorResume(error -> {
+                    LOGGER.warn("Could not download poster " + requestKey, error);
+                    return Mono.empty();
+                });
+    }
+
+    private synchronized Path storePoster(Path temporaryFile, Path posterFile) throws IOException {
+        long posterSize = Files.size(temporaryFile);
+        long replacedSize = Files.exists(posterFile) ? Files.size(posterFile) : 0; // Downloaded again by a request that missed it
+        Files.move(temporaryFile, posterFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if(currentSize.addAndGet(posterSize - replacedSize) > maximumSize) {
+            evictPosters();
+        }
+        return posterFile;
+    }
+
+    private synchronized void evictPosters() throws IOException { // Least recently used posters are deleted first
+        if(currentSize.get() <= maximumSize) return;
+
+        List<Map.Entry<Path, BasicFileAttributes>> cachedFiles = getCachedFiles().stream()
+                .sorted(Comparator.comparing(file -> file.getValue().lastModifiedTime()))
+                .toList();
+        for(Map.Entry<Path, BasicFileAttributes> file : cachedFiles) {
+            if(currentSize.get() <= evictionTargetSize) break;
+            if(Files.deleteIfExists(file.getKey())) {
+                currentSize.addAndGet(-file.getValue().size());
+            }
+        }
+    }
+
+    private void deleteInterruptedDownloads() throws IOException { // Left behind when the application stopped during a download
+        try(DirectoryStream<Path> downloads = Files.newDirectoryStream(cacheDirectory, DOWNLOAD_PREFIX + '*' + DOWNLOAD_SUFFIX)) {
+            downloads.forEach(this::deleteQuietly);
+        }
+    }
+
+    private List<Map.Entry<Path, BasicFileAttributes>> getCachedFiles() throws IOException {
+        try(Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files
+                    .filter(file -> POSTER_NAME_PATTERN.matcher(file.getFileName().toString()).matches())
+                    .map(file -> Map.entry(file, readAttributes(file)))
+                    .filter(file -> file.getValue().isRegularFile())
+                    .toList();
+        }
+    }
+
+    private BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch(IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch(IOException exception) {
+            LOGGER.warn("Could not delete " + file, exception);
+        }
+    }
+
+    public long getCurrentSize() {
+        return currentSize.get();
+    }
+}
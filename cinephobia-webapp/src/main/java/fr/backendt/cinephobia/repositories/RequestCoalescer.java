@@ -0,0 +1,112 @@
+package fr.backendt.cinephobia.repositories;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class RequestCoalescer<K, V> implements MeterBinder {
+
+    private final String name;
+
+    private final Map<K, Mono<V>> inFlightRequests = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final LongAdder cancelledRequests = new LongAdder();
+
+    public RequestCoalescer(String name) {
+        this.name = name;
+    }
+
+    public Mono<V> coalesce(K key, Supplier<Mono<V>> request) {
+        return Mono.defer(() -> {
+            requests.increment();
+            Mono<V> inFlightRequest = inFlightRequests.get(key);
+            if(inFlightRequest != null) {
+                coalescedRequests.increment();
+                return inFlightRequest;
+            }
+
+            Mono<V> sharedRequest = share(key, request.get());
+            inFlightRequest = inFlightRequests.putIfAbsent(key, sharedRequest);
+            if(inFlightRequest != null) { // Another caller started the same request in the meantime
+                coalescedRequests.increment();
+                return inFlightRequest;
+            }
+            return sharedRequest;
+        });
+    }
+
+    private Mono<V> share(K key, Mono<V> request) { // Every caller gets the same result, without subscribing again to the request
+        Sinks.One<V> result = Sinks.one();
+        AtomicInteger waitingCallers = new AtomicInteger();
+        AtomicReference<Disposable> subscription = new AtomicReference<>();
+        AtomicReference<Mono<V>> sharedRequest = new AtomicReference<>();
+
+        sharedRequest.set(Mono.defer(() -> {
+                    if(waitingCallers.getAndIncrement() == 0 && subscription.get() == null) { // Sent on first subscription
+                        subscription.set(request
+                                .doFinally(signal -> inFlightRequests.remove(key, sharedRequest.get()))
+                                .subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty));
+                    }
+                    return result.asMono();
+                })
+                .doFinally(signal -> { // The request is only cancelled once every caller gave up on it
+                    if(signal == SignalType.CANCEL && waitingCallers.decrementAndGet() == 0) {
+                        inFlightRequests.remove(key, sharedRequest.get());
+                        subscription.get().dispose();
+                        result.tryEmitError(new CancellationException("Request cancelled")); // Callers racing the cancellation never wait forever
+                        cancelledRequests.increment();
+                    }
+                }));
+        return sharedRequest.get();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.sum();
+    }
+
+    public long getCancelledRequestCount() {
+        return cancelledRequests.sum();
+    }
+
+    public int getInFlightRequestCount() {
+        return inFlightRequests.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("coalescer.requests", this, RequestCoalescer::getRequestCount)
+                .description("Requests sent through the coalescer")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("coalescer.requests.coalesced", this, RequestCoalescer::getCoalescedRequestCount)
+                .description("Requests that joined an identical in-flight request")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("coalescer.requests.cancelled", this, RequestCoalescer::getCancelledRequestCount)
+                .description("Requests cancelled because every caller gave up on them")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("coalescer.requests.in.flight", this, RequestCoalescer::getInFlightRequestCount)
+                .description("Distinct requests currently in flight")
+                .tag("name", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package fr.backendt.cinephobia.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+public class ScoredSlice<T> extends SliceImpl<T> { // A ranked slice, whose next slice starts after the score and id of its last element
+
+    private final int lastScore;
+
+    public ScoredSlice(List<T> content, Pageable pageable, boolean hasNext, int lastScore) {
+        super(content, pageable, hasNext);
+        this.lastScore = lastScore;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+}
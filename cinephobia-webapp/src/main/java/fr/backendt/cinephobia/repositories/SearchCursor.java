@@ -0,0 +1,45 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SearchCursor { // Pages already fetched for one query and one media type
+
+    private static final int UNKNOWN_TOTAL = -1;
+
+    private final int maximumPages;
+    private final Map<Integer, SearchResults> pages = new ConcurrentHashMap<>();
+    private volatile int totalPages = UNKNOWN_TOTAL;
+    private volatile int totalResults = UNKNOWN_TOTAL;
+
+    public SearchCursor(int maximumPages) {
+        this.maximumPages = maximumPages;
+    }
+
+    public Optional<SearchResults> getPage(int page) {
+        SearchResults results = pages.get(page);
+        if(results != null) {
+            return Optional.of(results);
+        }
+        if(totalPages != UNKNOWN_TOTAL && page > totalPages) { // Past the last page, TMDB would only answer an empty page
+            return Optional.of(new SearchResults(page, totalPages, totalResults, List.of()));
+        }
+        return Optional.empty();
+    }
+
+    public void addPage(int page, SearchResults results) {
+        totalResults = results.getTotalResults();
+        totalPages = results.getTotalPages();
+        if(pages.size() < maximumPages) {
+            pages.put(page, results);
+        }
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+}
@@ -1,13 +1,18 @@
 package fr.backendt.cinephobia.repositories;
 
 import fr.backendt.cinephobia.models.Trigger;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TriggerRepository extends JpaRepository<Trigger, Long> {
-    Page<Trigger> findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String name, String description, Pageable pageable);
+    Slice<Trigger> findAllByIdGreaterThanOrderById(Long afterId, Pageable pageable);
+
+    @Query("SELECT t FROM Trigger t WHERE t.id > :afterId AND (LOWER(t.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%'))) ORDER BY t.id")
+    Slice<Trigger> findAllContainingAfterId(String search, Long afterId, Pageable pageable);
+
     boolean existsByNameIgnoreCase(String name);
 }
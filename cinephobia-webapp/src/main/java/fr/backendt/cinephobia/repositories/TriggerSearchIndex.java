@@ -0,0 +1,206 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Trigger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jboss.logging.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Repository
+public class TriggerSearchIndex implements MeterBinder { // In-memory trigram index over trigger names and descriptions
+
+    private static final Logger LOGGER = Logger.getLogger(TriggerSearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int NAME_START_SCORE = 3;
+    private static final int NAME_WORD_SCORE = 2;
+    private static final int NAME_SCORE = 1;
+    private static final int DESCRIPTION_SCORE = 0;
+    private static final int NO_MATCH = -1;
+
+    private record IndexedTrigger(Trigger trigger, String name, String description, Set<String> grams) {}
+
+    private static final Comparator<IndexedTrigger> ID_ORDER = Comparator.comparingLong(indexedTrigger -> indexedTrigger.trigger().getId());
+
+    private final TriggerRepository repository;
+
+    private final Map<Long, IndexedTrigger> triggers = new ConcurrentHashMap<>();
+    private final Map<String, Set<IndexedTrigger>> postings = new ConcurrentHashMap<>(); // Sorted by id, for ranking ties
+
+    private volatile boolean loaded = false;
+
+    public TriggerSearchIndex(TriggerRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStoredTriggersInBackground() { // Searches use the database until the index is loaded
+        Mono.fromRunnable(this::loadStoredTriggers)
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(error -> LOGGER.warn("Could not load stored triggers into the search index", error))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    public void loadStoredTriggers() {
+        Pageable pageRequest = PageRequest.ofSize(LOAD_BATCH_SIZE);
+        Slice<Trigger> storedTriggers;
+        long afterId = 0L;
+        do {
+            storedTriggers = repository.findAllByIdGreaterThanOrderById(afterId, pageRequest);
+            storedTriggers.forEach(this::index);
+            if(storedTriggers.hasContent()) {
+                afterId = storedTriggers.getContent().get(storedTriggers.getNumberOfElements() - 1).getId();
+            }
+        } while(storedTriggers.hasNext());
+        loaded = true;
+        LOGGER.infof("Indexed %d stored triggers", triggers.size());
+    }
+
+    public synchronized void index(Trigger trigger) {
+        if(trigger.getId() == null) return;
+        remove(trigger.getId());
+
+        String name = normalize(trigger.getName());
+        String description = normalize(trigger.getDescription());
+        Set<String> grams = new HashSet<>();
+        addGrams(name, grams);
+        addGrams(description, grams); // Separately, so no gram spans both fields
+
+        IndexedTrigger indexedTrigger = new IndexedTrigger(new Trigger(trigger), name, description, grams);
+        triggers.put(trigger.getId(), indexedTrigger);
+        grams.forEach(gram -> postings.computeIfAbsent(gram, key -> new ConcurrentSkipListSet<>(ID_ORDER))
+                .add(indexedTrigger));
+    }
+
+    public synchronized void remove(Long triggerId) {
+        IndexedTrigger previousTrigger = triggers.remove(triggerId);
+        if(previousTrigger == null) return;
+
+        for(String gram : previousTrigger.grams()) {
+            postings.computeIfPresent(gram, (key, gramPostings) -> {
+                gramPostings.remove(previousTrigger);
+                return gramPostings.isEmpty() ? null : gramPostings;
+            });
+        }
+    }
+
+    /**
+     * Finds the triggers containing the search in their name or description, best matches first.
+     * The slice continues after the last trigger of the previous slice, given by its score and id,
+     * so it still continues once that trigger is edited or removed.
+     */
+    public ScoredSlice<Trigger> search(String search, @Nullable Integer afterScore, Long afterId, Pageable pageable) {
+        String query = normalize(search);
+        if(query.length() < GRAM_LENGTH) {
+            throw new IllegalArgumentException("Search is too short for the index");
+        }
+
+        int lastScore = afterId > 0 && afterScore != null ? afterScore : Integer.MAX_VALUE;
+        int topScore = Math.min(lastScore, NAME_START_SCORE);
+
+        int resultsLimit = pageable.getPageSize() + 1; // One more tells whether there is a next slice
+        List<List<Trigger>> scoreMatches = new ArrayList<>();
+        for(int score = DESCRIPTION_SCORE; score <= NAME_START_SCORE; score++) {
+            scoreMatches.add(new ArrayList<>());
+        }
+
+        for(IndexedTrigger candidate : findCandidates(query)) { // By id, so the first matches of a score are its best ones
+            int score = score(candidate, query);
+            if(score == NO_MATCH || score > lastScore) continue;
+            if(score == lastScore && candidate.trigger().getId() <= afterId) continue;
+
+            List<Trigger> matches = scoreMatches.get(score);
+            if(matches.size() < resultsLimit) {
+                matches.add(candidate.trigger());
+            }
+            if(scoreMatches.get(topScore).size() == resultsLimit) break; // No later trigger can rank before these
+        }
+
+        List<Trigger> results = new ArrayList<>();
+        int resultsLastScore = NO_MATCH;
+        boolean hasNext = false;
+        for(int score = topScore; score >= DESCRIPTION_SCORE && !hasNext; score--) {
+            for(Trigger match : scoreMatches.get(score)) {
+                if(results.size() == pageable.getPageSize()) {
+                    hasNext = true;
+                    break;
+                }
+                results.add(match);
+                resultsLastScore = score;
+            }
+        }
+        return new ScoredSlice<>(List.copyOf(results), pageable, hasNext, resultsLastScore);
+    }
+
+    private Set<IndexedTrigger> findCandidates(String query) { // A superset of the matches, which are then checked one by one
+        Set<IndexedTrigger> rarestGramPostings = null;
+        for(int start = 0; start + GRAM_LENGTH <= query.length(); start++) {
+            Set<IndexedTrigger> gramPostings = postings.get(query.substring(start, start + GRAM_LENGTH));
+            if(gramPostings == null) return Set.of();
+            if(rarestGramPostings == null || gramPostings.size() < rarestGramPostings.size()) {
+                rarestGramPostings = gramPostings; // Checking the text is cheaper than intersecting the other grams
+            }
+        }
+        return rarestGramPostings;
+    }
+
+    private static int score(IndexedTrigger indexedTrigger, String query) {
+        return score(indexedTrigger.name(), indexedTrigger.description(), query);
+    }
+
+    private static int score(String name, String description, String query) {
+        if(name.startsWith(query)) return NAME_START_SCORE;
+        int position = name.indexOf(query);
+        if(position > 0) {
+            boolean isWordStart = name.charAt(position - 1) == ' ' || name.indexOf(" " + query, position) > 0;
+            return isWordStart ? NAME_WORD_SCORE : NAME_SCORE;
+        }
+        if(description.contains(query)) return DESCRIPTION_SCORE;
+        return NO_MATCH;
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for(int start = 0; start + GRAM_LENGTH <= text.length(); start++) {
+            grams.add(text.substring(start, start + GRAM_LENGTH));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : MediaSearchIndex.normalize(text);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean canSearch(String search) { // Shorter searches match most triggers, the database stops at the first page of them
+        return loaded && normalize(search).length() >= GRAM_LENGTH;
+    }
+
+    public int getTriggerCount() {
+        return triggers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("search.index.triggers", this, TriggerSearchIndex::getTriggerCount)
+                .description("Triggers in the local search index")
+                .register(registry);
+    }
+}
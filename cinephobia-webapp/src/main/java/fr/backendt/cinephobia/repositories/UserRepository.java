@@ -1,29 +1,46 @@
 package fr.backendt.cinephobia.repositories;
 
 import fr.backendt.cinephobia.models.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Slice;
+import org.hibernate.Hibernate;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)") // Answered from the email_normalized index
     Optional<User> findByEmailIgnoreCase(String email);
 
-    @EntityGraph(attributePaths = "triggers")
-    Optional<User> findUserWithRelationsByEmail(String email);
+    @Transactional(readOnly = true)
+    default Optional<User> findUserWithRelationsByEmail(String email) { // Fetch joining the triggers would bypass their second-level cache
+        Optional<User> user = findByEmail(email);
+        user.ifPresent(foundUser -> Hibernate.initialize(foundUser.getTriggers()));
+        return user;
+    }
+
+    Optional<User> findByEmail(String email);
 
     @Query("SELECT email FROM User u WHERE u.id = ?1")
     Optional<String> findEmailById(Long id);
 
+    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE LOWER(u.email) = LOWER(:email)")
     boolean existsByEmailIgnoreCase(String email);
 
-    Page<User> findAllByDisplayNameContainingIgnoreCase(String displayName, Pageable pageable);
+    Slice<User> findAllByIdGreaterThanOrderById(Long afterId, Pageable pageable);
+
+    Slice<User> findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById(String displayName, Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT u.* FROM (" +
+            "(SELECT id FROM users WHERE MATCH(display_name) AGAINST (:namePhrase IN BOOLEAN MODE) AND id > :afterId ORDER BY id LIMIT :#{#pageable.pageSize + 1}) " +
+            "UNION (SELECT id FROM users WHERE email_normalized LIKE :emailPrefix AND id > :afterId ORDER BY id LIMIT :#{#pageable.pageSize + 1})" +
+            ") matches JOIN users u ON u.id = matches.id ORDER BY u.id", nativeQuery = true) // Each side reads its own index, an OR would scan the table, and stops past the slice
+    Slice<User> findAllMatchingAfterId(String namePhrase, String emailPrefix, Long afterId, Pageable pageable);
 
     void deleteByEmailIgnoreCase(String email);
 }
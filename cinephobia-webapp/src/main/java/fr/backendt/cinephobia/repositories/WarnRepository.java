@@ -2,10 +2,15 @@ package fr.backendt.cinephobia.repositories;
 
 import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.Warn;
-import org.springframework.data.domain.Page;
+import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,11 +18,39 @@ import java.util.Optional;
 @Repository
 public interface WarnRepository extends JpaRepository<Warn, Long> {
 
-    @EntityGraph(attributePaths = "trigger")
-    Page<Warn> findAllByMediaIdAndMediaType(Long id, MediaType mediaType, Pageable pageable);
-    Page<Warn> findAllByUserEmail(String userEmail, Pageable pageable);
-    boolean existsByUserIdAndTriggerIdAndMediaIdAndMediaType(Long userId, Long triggerId, Long mediaId, MediaType mediaType);
+    // Listings only select the displayed columns, with their trigger joined
+    @Query("""
+            SELECT new fr.backendt.cinephobia.models.dto.WarnResponseDTO(w.id, w.mediaId, w.mediaType, t.id, t.name, t.description, w.expositionLevel)
+            FROM Warn w JOIN w.trigger t
+            WHERE w.mediaId = :mediaId AND w.mediaType = :mediaType AND w.id > :afterId
+            ORDER BY w.id
+            """)
+    Slice<WarnResponseDTO> findResponsesByMedia(Long mediaId, MediaType mediaType, Long afterId, Pageable pageable);
+
+    @Query("""
+            SELECT new fr.backendt.cinephobia.models.dto.WarnResponseDTO(w.id, w.mediaId, w.mediaType, t.id, t.name, t.description, w.expositionLevel)
+            FROM Warn w JOIN w.trigger t
+            WHERE w.user.id = :userId AND w.id > :afterId
+            ORDER BY w.id
+            """)
+    Slice<WarnResponseDTO> findResponsesByUserId(Long userId, Long afterId, Pageable pageable);
+
     Optional<Warn> findByIdAndUserEmail(Long id, String userEmail);
-    boolean existsByIdAndUserEmail(Long id, String userEmail);
+
+    // A null owner matches any user, null fields are left unchanged
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "warn")) // Otherwise the whole second-level cache is invalidated
+    @Query(value = """
+            UPDATE warn SET trigger_id = COALESCE(:triggerId, trigger_id),
+                media_id = COALESCE(:mediaId, media_id),
+                media_type = COALESCE(:mediaType, media_type),
+                exposition_level = :expositionLevel
+            WHERE id = :warnId AND (:ownerId IS NULL OR user_id = :ownerId)
+            """, nativeQuery = true)
+    int updateWarn(Long warnId, Long ownerId, Long triggerId, Long mediaId, String mediaType, int expositionLevel);
+
+    @Modifying
+    @Query("DELETE FROM Warn w WHERE w.id = :warnId AND (:ownerId IS NULL OR w.user.id = :ownerId)")
+    int deleteWarn(Long warnId, Long ownerId);
 
 }
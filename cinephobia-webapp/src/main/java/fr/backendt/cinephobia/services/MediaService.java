@@ -1,49 +1,111 @@
 package fr.backendt.cinephobia.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.SearchSource;
 import fr.backendt.cinephobia.repositories.MediaRepository;
+import fr.backendt.cinephobia.repositories.MediaSearchIndex;
+import fr.backendt.cinephobia.repositories.MediaSuggestionIndex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-
-import static java.util.concurrent.CompletableFuture.completedFuture;
-import static java.util.concurrent.CompletableFuture.failedFuture;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class MediaService {
 
+    private static final int MAX_CONCURRENT_LOOKUPS = 8;
+    private static final int MAX_CHECKED_SEARCHES = 10_000;
+
     private final MediaRepository repository;
+    private final MediaSearchIndex searchIndex;
+    private final MediaSuggestionIndex suggestionIndex;
+    private final int minimumIndexResults;
+    private final Cache<String, Boolean> checkedSearches; // Searches recently sent to TMDB, whose new titles are now indexed
 
-    public MediaService(MediaRepository repository) {
+    public MediaService(MediaRepository repository, MediaSearchIndex searchIndex, MediaSuggestionIndex suggestionIndex,
+                        @Value("${cinephobia.search.index.minimum-results}") int minimumIndexResults,
+                        @Value("${cinephobia.search.index.tmdb-check-interval}") Duration tmdbCheckInterval) {
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.minimumIndexResults = minimumIndexResults;
+        this.checkedSearches = Caffeine.newBuilder()
+                .maximumSize(MAX_CHECKED_SEARCHES)
+                .expireAfterWrite(tmdbCheckInterval)
+                .build();
     }
 
-    @Async
-    public CompletableFuture<Media> getMovie(Long id) {
+    public Mono<Media> getMovie(Long id) {
         return repository.getMovie(id)
-                .map(CompletableFuture::completedFuture)
-                .orElse(failedFuture(new EntityNotFoundException("Movie not found")));
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Movie not found")));
     }
 
-    @Async
-    public CompletableFuture<Media> getSeries(Long id) {
+    public Mono<Media> getSeries(Long id) {
         return repository.getSeries(id)
-                .map(CompletableFuture::completedFuture)
-                .orElse(failedFuture(new EntityNotFoundException("Series not found")));
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Series not found")));
+    }
+
+    public Mono<Map<MediaId, Media>> getMediasById(Collection<MediaId> mediaIds) {
+        return Flux.fromIterable(new LinkedHashSet<>(mediaIds)) // Each media is only fetched once
+                .flatMap(mediaId -> getMedia(mediaId)
+                        .map(media -> Map.entry(mediaId, media))
+                        .onErrorResume(exception -> Mono.empty()), MAX_CONCURRENT_LOOKUPS)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private Mono<Media> getMedia(MediaId mediaId) {
+        return mediaId.getType() == MediaType.MOVIE ?
+                getMovie(mediaId.getId()) :
+                getSeries(mediaId.getId());
+    }
+
+    /**
+     * Searches the index, or TMDB when the index knows too few matches or the search was not checked against it lately.
+     * Both sources rank and page results differently, so the next pages of a search come from the source of its first page.
+     */
+    public Mono<SearchResults> getMedias(@Nullable String searchString, int page, @Nullable SearchSource source) {
+        return Mono.defer(() -> searchMedias(searchString, page, source)); // The index is only searched once subscribed, so a cancelled search skips it
+    }
+
+    private Mono<SearchResults> searchMedias(@Nullable String searchString, int page, @Nullable SearchSource source) {
+        if(searchString == null || searchString.isBlank()) {
+            return repository.getPopularMovies(page);
+        }
+        if(source == SearchSource.TMDB) {
+            return repository.searchMedias(searchString, page);
+        }
+        SearchResults indexResults = searchIndex.search(searchString, page);
+        if(source == SearchSource.INDEX) {
+            return Mono.just(indexResults);
+        }
+        if(indexResults.getTotalResults() < minimumIndexResults) {
+            return repository.searchMedias(searchString, page);
+        }
+
+        String searchKey = MediaSearchIndex.normalize(searchString) + '/' + page;
+        if(checkedSearches.getIfPresent(searchKey) != null) { // Known titles only reach TMDB once per check interval
+            return Mono.just(indexResults);
+        }
+        return repository.searchMedias(searchString, page) // Its results are indexed, so titles released since are found locally
+                .doOnNext(results -> checkedSearches.put(searchKey, true))
+                .onErrorReturn(indexResults);
     }
 
-    @Async
-    public CompletableFuture<SearchResults> getMedias(@Nullable String searchString, int page) {
-        if(searchString != null && searchString.isBlank()) searchString = null;
-        SearchResults medias = Optional.ofNullable(searchString)
-                .map(search -> repository.searchMedias(search, page))
-                .orElseGet(() -> repository.getPopularMovies(page));
-        return completedFuture(medias);
+    public List<Media> getSuggestions(@Nullable String searchString) { // Never reaches TMDB
+        return suggestionIndex.suggest(searchString);
     }
 
 }
@@ -0,0 +1,26 @@
+package fr.backendt.cinephobia.services;
+
+import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
+import fr.backendt.cinephobia.models.PosterSize;
+import fr.backendt.cinephobia.repositories.PosterRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+@Service
+public class PosterService {
+
+    private final PosterRepository repository;
+
+    public PosterService(PosterRepository repository) {
+        this.repository = repository;
+    }
+
+    public Mono<Path> getPoster(String sizeName, String posterName) {
+        return Mono.justOrEmpty(PosterSize.fromName(sizeName))
+                .flatMap(size -> repository.getPoster(size, posterName))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Poster not found")));
+    }
+
+}
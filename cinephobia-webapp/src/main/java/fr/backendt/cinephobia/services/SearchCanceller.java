@@ -0,0 +1,59 @@
+package fr.backendt.cinephobia.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class SearchCanceller implements MeterBinder { // Only the latest search of each searcher and search id is worth finishing
+
+    private record SearchKey(String searcher, String searchId) {}
+
+    private final Map<SearchKey, Sinks.One<Boolean>> inFlightSearches = new ConcurrentHashMap<>();
+    private final LongAdder cancelledSearches = new LongAdder();
+
+    /**
+     * Cancels the in-flight search of the same searcher with the same search id, then runs this one.
+     * The searcher is the user or session sending the search, so no client can cancel another's searches.
+     */
+    public <T> Mono<T> cancelOnNewerSearch(String searcher, String searchId, Mono<T> search) {
+        SearchKey searchKey = new SearchKey(searcher, searchId);
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> newerSearch = Sinks.one();
+            Sinks.One<Boolean> olderSearch = inFlightSearches.put(searchKey, newerSearch);
+            if(olderSearch != null && olderSearch.tryEmitValue(true).isSuccess()) {
+                cancelledSearches.increment();
+            }
+
+            return search
+                    .takeUntilOther(newerSearch.asMono()) // Completes empty, disposing the older search
+                    .doFinally(signal -> inFlightSearches.remove(searchKey, newerSearch));
+        });
+    }
+
+    public long getCancelledSearchCount() {
+        return cancelledSearches.sum();
+    }
+
+    public int getInFlightSearchCount() {
+        return inFlightSearches.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.cancelled", this, SearchCanceller::getCancelledSearchCount)
+                .description("Searches cancelled by a newer search of the same searcher with the same id")
+                .register(registry);
+        Gauge.builder("search.in.flight", this, SearchCanceller::getInFlightSearchCount)
+                .description("Searcher search ids with a search in flight")
+                .register(registry);
+    }
+}
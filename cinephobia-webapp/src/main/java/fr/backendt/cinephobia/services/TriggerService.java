@@ -3,10 +3,14 @@ package fr.backendt.cinephobia.services;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.models.User;
 import fr.backendt.cinephobia.repositories.TriggerRepository;
+import fr.backendt.cinephobia.repositories.TriggerSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -20,10 +24,18 @@ import static java.util.concurrent.CompletableFuture.failedFuture;
 @Service
 public class TriggerService {
 
+    private static final String USER_TRIGGERS_ROLE = User.class.getName() + ".triggers";
+
     private final TriggerRepository repository;
+    private final TriggerSearchIndex searchIndex;
+    private final ModelMapper updateMapper;
+    private final EntityManagerFactory entityManagerFactory;
 
-    public TriggerService(TriggerRepository repository) {
+    public TriggerService(TriggerRepository repository, TriggerSearchIndex searchIndex, ModelMapper updateMapper, EntityManagerFactory entityManagerFactory) {
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.updateMapper = updateMapper;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Async
@@ -36,14 +48,22 @@ public class TriggerService {
         }
         trigger.setId(null);
         Trigger savedTrigger = repository.save(trigger);
+        searchIndex.index(savedTrigger);
         return completedFuture(savedTrigger);
     }
 
     @Async
-    public CompletableFuture<Page<Trigger>> getTriggers(@Nullable String search, Pageable pageable) {
-        Page<Trigger> triggers = search != null ?
-                repository.findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(search, search, pageable) :
-                repository.findAll(pageable);
+    public CompletableFuture<Slice<Trigger>> getTriggers(@Nullable String search, @Nullable Integer afterScore, Long afterId, Pageable pageable) {
+        Slice<Trigger> triggers;
+        if(search == null || search.isBlank()) {
+            triggers = repository.findAllByIdGreaterThanOrderById(afterId, pageable);
+        } else if(afterId > 0 && afterScore == null) { // Continues a scroll started by the database, which ranks and matches differently
+            triggers = repository.findAllContainingAfterId(search, afterId, pageable);
+        } else if(searchIndex.canSearch(search)) {
+            triggers = searchIndex.search(search, afterScore, afterId, pageable);
+        } else {
+            triggers = repository.findAllContainingAfterId(search, afterId, pageable); // Until the index is loaded, or for very short searches
+        }
         return completedFuture(triggers);
     }
 
@@ -58,9 +78,6 @@ public class TriggerService {
 
     @Async
     public CompletableFuture<Trigger> updateTrigger(Long id, Trigger triggerUpdate) throws EntityNotFoundException {
-        ModelMapper mapper = new ModelMapper();
-        mapper.getConfiguration().setSkipNullEnabled(true);
-
         triggerUpdate.setId(null);
         Optional<Trigger> optionalTrigger = repository.findById(id);
         if(optionalTrigger.isEmpty()) {
@@ -77,8 +94,9 @@ public class TriggerService {
             }
         }
 
-        mapper.map(triggerUpdate, currentTrigger);
+        updateMapper.map(triggerUpdate, currentTrigger);
         Trigger savedTrigger = repository.save(currentTrigger);
+        searchIndex.index(savedTrigger);
         return completedFuture(savedTrigger);
     }
 
@@ -89,7 +107,15 @@ public class TriggerService {
             return failedFuture(new EntityNotFoundException("Trigger not found"));
         }
         repository.deleteById(id);
+        searchIndex.remove(id);
+        evictUserTriggers();
         return completedFuture(null);
     }
 
+    private void evictUserTriggers() { // The database cascade removes the trigger from users, unseen by Hibernate
+        entityManagerFactory.getCache()
+                .unwrap(Cache.class)
+                .evictCollectionData(USER_TRIGGERS_ROLE);
+    }
+
 }
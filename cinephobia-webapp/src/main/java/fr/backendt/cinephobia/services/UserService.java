@@ -6,16 +6,18 @@ import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.models.User;
 import fr.backendt.cinephobia.repositories.UserRepository;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.failedFuture;
@@ -23,12 +25,17 @@ import static java.util.concurrent.CompletableFuture.failedFuture;
 @Service
 public class UserService {
 
+    private static final int NGRAM_TOKEN_SIZE = 2; // MySQL's default ngram_token_size
+    private static final Pattern LIKE_WILDCARDS_PATTERN = Pattern.compile("[\\\\%_]");
+
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final ModelMapper updateMapper;
 
-    public UserService(UserRepository repository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository repository, PasswordEncoder passwordEncoder, ModelMapper updateMapper) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
+        this.updateMapper = updateMapper;
     }
 
     @Async
@@ -48,13 +55,28 @@ public class UserService {
     }
 
     @Async
-    public CompletableFuture<Page<User>> getUsers(@Nullable String nameSearch, Pageable pageable) {
-        Page<User> users = nameSearch == null ?
-                repository.findAll(pageable) :
-                repository.findAllByDisplayNameContainingIgnoreCase(nameSearch, pageable);
+    public CompletableFuture<Slice<User>> getUsers(@Nullable String search, Long afterId, Pageable pageable) {
+        Slice<User> users;
+        if(search == null || search.isBlank()) {
+            users = repository.findAllByIdGreaterThanOrderById(afterId, pageable);
+        } else if(search.strip().length() < NGRAM_TOKEN_SIZE) { // Matches most users, the id order scan stops at the first page of them
+            users = repository.findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById(search.strip(), afterId, pageable);
+        } else {
+            users = repository.findAllMatchingAfterId(toNamePhrase(search), toEmailPrefix(search), afterId, pageable);
+        }
         return completedFuture(users);
     }
 
+    private static String toNamePhrase(String search) { // Quoted, so the ngrams must follow each other and operators are ignored
+        return '"' + search.strip().replace('"', ' ') + '"';
+    }
+
+    private static String toEmailPrefix(String search) {
+        String escapedSearch = LIKE_WILDCARDS_PATTERN.matcher(search.strip().toLowerCase(Locale.ROOT))
+                .replaceAll("\\\\$0");
+        return escapedSearch + "%";
+    }
+
     @Async
     public CompletableFuture<User> getUserById(Long id) throws EntityNotFoundException {
         return repository.findById(id)
@@ -104,9 +126,6 @@ public class UserService {
     }
 
     public CompletableFuture<User> updateUser(User user, User userUpdate) {
-        ModelMapper mapper = new ModelMapper();
-        mapper.getConfiguration().setSkipNullEnabled(true);
-
         userUpdate.setId(null);
         User hashedUserUpdate = hashUserPassword(userUpdate);
 
@@ -118,7 +137,7 @@ public class UserService {
             }
         }
 
-        mapper.map(hashedUserUpdate, user);
+        updateMapper.map(hashedUserUpdate, user);
         User savedUser = repository.save(user);
         return completedFuture(savedUser);
     }
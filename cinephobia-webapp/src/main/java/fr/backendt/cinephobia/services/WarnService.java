@@ -3,16 +3,26 @@ package fr.backendt.cinephobia.services;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.MediaType;
-import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.models.MediaWarnSummary;
 import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
+import fr.backendt.cinephobia.repositories.MediaWarnSummaryRepository;
+import fr.backendt.cinephobia.repositories.TriggerRepository;
+import fr.backendt.cinephobia.repositories.UserRepository;
 import fr.backendt.cinephobia.repositories.WarnRepository;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.jboss.logging.Logger;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
@@ -21,36 +31,75 @@ import static java.util.concurrent.CompletableFuture.failedFuture;
 @Service
 public class WarnService {
 
+    private static final Logger LOGGER = Logger.getLogger(WarnService.class);
+    public static final String UNKNOWN_TRIGGER_MESSAGE = "Trigger does not exist";
+    private static final String UNIQUE_WARN_CONSTRAINT = "UC_WARN";
+    private static final String TRIGGER_FOREIGN_KEY = "FK_WARN_TRIGGER";
+    private static final String USER_FOREIGN_KEY = "FK_WARN_USER";
+
     private final WarnRepository repository;
+    private final MediaWarnSummaryRepository summaryRepository;
+    private final TriggerRepository triggerRepository;
+    private final UserRepository userRepository;
 
-    public WarnService(WarnRepository repository) {
+    public WarnService(WarnRepository repository, MediaWarnSummaryRepository summaryRepository, TriggerRepository triggerRepository, UserRepository userRepository) {
         this.repository = repository;
+        this.summaryRepository = summaryRepository;
+        this.triggerRepository = triggerRepository;
+        this.userRepository = userRepository;
     }
 
     @Async
+    @Transactional
     public CompletableFuture<Warn> createWarn(Warn warn) {
-        Long userId = warn.getUser().getId();
-        Long triggerId = warn.getTrigger().getId();
-        boolean alreadyExists = repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(userId, triggerId, warn.getMediaId(), warn.getMediaType());
+        warn.setId(null);
+        warn.setTrigger(triggerRepository.getReferenceById(warn.getTrigger().getId()));
+        warn.setUser(userRepository.getReferenceById(warn.getUser().getId()));
+
+        Warn savedWarn;
+        try {
+            savedWarn = repository.saveAndFlush(warn); // Constraints reject duplicates, unknown triggers and unknown users, even concurrent ones
+        } catch(DataIntegrityViolationException exception) {
+            throw toWarnException(exception); // Thrown so the failed transaction rolls back
+        }
+        addToSummary(savedWarn);
+        Hibernate.initialize(savedWarn.getTrigger()); // Rendered after the transaction, usually from the second-level cache
+        return completedFuture(savedWarn);
+    }
 
-        if(alreadyExists) {
-            return failedFuture(new BadRequestException("Warn already exists"));
+    private RuntimeException toWarnException(DataIntegrityViolationException exception) {
+        if(!(exception.getCause() instanceof ConstraintViolationException violation)) return exception;
+
+        if(violation.getConstraintName() == null) return exception;
+
+        String constraintName = violation.getConstraintName().toUpperCase(Locale.ROOT);
+        if(constraintName.endsWith(UNIQUE_WARN_CONSTRAINT)) { // MySQL prefixes it with the table name
+            return new BadRequestException("Warn already exists");
+        }
+        if(constraintName.endsWith(TRIGGER_FOREIGN_KEY)) {
+            return new EntityNotFoundException(UNKNOWN_TRIGGER_MESSAGE);
+        }
+        if(constraintName.endsWith(USER_FOREIGN_KEY)) {
+            return new EntityNotFoundException("User does not exist");
         }
+        return exception;
+    }
 
-        warn.setId(null);
-        Warn savedWarn = repository.save(warn);
-        return completedFuture(savedWarn);
+    @Async
+    public CompletableFuture<List<MediaWarnSummary>> getWarnSummaries(Long mediaId, MediaType type) {
+        List<MediaWarnSummary> summaries = summaryRepository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(mediaId, type);
+        return completedFuture(summaries);
     }
 
     @Async
-    public CompletableFuture<Page<Warn>> getWarnsForMedia(Long mediaId, MediaType type, Pageable pageable) {
-        Page<Warn> warns = repository.findAllByMediaIdAndMediaType(mediaId, type, pageable);
+    public CompletableFuture<Slice<WarnResponseDTO>> getWarnsForMedia(Long mediaId, MediaType type, Long afterId, Pageable pageable) {
+        Slice<WarnResponseDTO> warns = repository.findResponsesByMedia(mediaId, type, afterId, pageable);
         return completedFuture(warns);
     }
 
     @Async
-    public CompletableFuture<Page<Warn>> getWarnsForUser(String userEmail, Pageable pageable) {
-        Page<Warn> warns = repository.findAllByUserEmail(userEmail, pageable);
+    public CompletableFuture<Slice<WarnResponseDTO>> getWarnsForUser(Long userId, Long afterId, Pageable pageable) {
+        Slice<WarnResponseDTO> warns = repository.findResponsesByUserId(userId, afterId, pageable);
         return completedFuture(warns);
     }
 
@@ -62,86 +111,66 @@ public class WarnService {
     }
 
     @Async
-    public CompletableFuture<Warn> updateWarn(Long warnId, Warn update) {
-        Optional<Warn> optionalWarn = repository.findById(warnId);
-        if(optionalWarn.isEmpty()) {
-            return failedFuture(new EntityNotFoundException("Warn does not exist"));
-        }
-        Warn currentWarn = optionalWarn.get();
+    @Transactional
+    public CompletableFuture<Void> updateWarn(Long warnId, Warn update) {
+        return applyUpdate(warnId, update, null);
+    }
 
-        update.setId(null);
-        update.setUser(null);
+    @Async
+    @Transactional
+    public CompletableFuture<Void> updateWarnIfOwnedByUser(Long warnId, Warn update, Long ownerId) {
+        return applyUpdate(warnId, update, ownerId);
+    }
 
-        ModelMapper mapper = new ModelMapper();
-        mapper.getConfiguration().setSkipNullEnabled(true);
+    private CompletableFuture<Void> applyUpdate(Long warnId, Warn update, Long ownerId) {
+        Long triggerId = update.getTrigger() == null ? null : update.getTrigger().getId();
+        String mediaType = update.getMediaType() == null ? null : update.getMediaType().name();
 
-        boolean isDuplicate = isUpdatingToDuplicate(currentWarn, update);
-        if(isDuplicate) {
-            return failedFuture(new BadRequestException("Warn already exists"));
+        summaryRepository.removeWarn(warnId, ownerId);
+        int updatedWarns;
+        try {
+            updatedWarns = repository.updateWarn(warnId, ownerId, triggerId, update.getMediaId(), mediaType, update.getExpositionLevel());
+        } catch(DataIntegrityViolationException exception) {
+            throw toWarnException(exception);
         }
-        mapper.map(update, currentWarn);
-        Warn savedWarn = repository.save(currentWarn);
-        return completedFuture(savedWarn);
-    }
-
-    @Async
-    public CompletableFuture<Warn> updateWarnIfOwnedByUser(Long warnId, Warn update, String ownerEmail) {
-        boolean warnExistsAndOwned = repository.existsByIdAndUserEmail(warnId, ownerEmail);
-        if(!warnExistsAndOwned) {
+        if(updatedWarns == 0) { // Unknown, or owned by another user
             return failedFuture(new EntityNotFoundException("Warn does not exist"));
         }
-
-        return updateWarn(warnId, update);
+        summaryRepository.addWarnById(warnId);
+        return completedFuture(null);
     }
 
     @Async
+    @Transactional
     public CompletableFuture<Void> deleteWarn(Long warnId) {
-        boolean warnExists = repository.existsById(warnId);
-        if(!warnExists) {
-            return failedFuture(new EntityNotFoundException("Warn does not exist"));
-        }
-        repository.deleteById(warnId);
-        return completedFuture(null);
+        return applyDelete(warnId, null);
     }
 
     @Async
-    public CompletableFuture<Void> deleteWarnIfOwnedByUser(Long warnId, String ownerEmail) {
-        boolean warnExistsAndOwned = repository.existsByIdAndUserEmail(warnId, ownerEmail);
-        if(!warnExistsAndOwned) {
+    @Transactional
+    public CompletableFuture<Void> deleteWarnIfOwnedByUser(Long warnId, Long ownerId) {
+        return applyDelete(warnId, ownerId);
+    }
+
+    private CompletableFuture<Void> applyDelete(Long warnId, Long ownerId) {
+        summaryRepository.removeWarn(warnId, ownerId);
+        int deletedWarns = repository.deleteWarn(warnId, ownerId);
+        if(deletedWarns == 0) {
             return failedFuture(new EntityNotFoundException("Warn does not exist"));
         }
-        repository.deleteById(warnId);
         return completedFuture(null);
     }
 
-    public boolean isUpdatingToDuplicate(Warn current, Warn update) {
-        boolean isChangingUniqueFields = isChangingUniqueFields(current, update);
-        if(!isChangingUniqueFields) {
-            return false;
-        }
-
-        ModelMapper mapper = new ModelMapper();
-        mapper.getConfiguration().setSkipNullEnabled(true);
-
-        Warn warn = new Warn(current);
-        mapper.map(update, warn);
-
-       return repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(
-               warn.getUser().getId(),
-               warn.getTrigger().getId(),
-               warn.getMediaId(),
-               warn.getMediaType());
+    @Scheduled(cron = "${cinephobia.warn.summary.rebuild-cron}")
+    @Transactional
+    public void rebuildWarnSummaries() { // Catches up with warns removed by database cascades
+        summaryRepository.deleteAllSummaries();
+        summaryRepository.insertAllSummaries();
+        LOGGER.info("Rebuilt media warn summaries");
     }
 
-    public boolean isChangingUniqueFields(Warn current, Warn update) {
-        Trigger updateTrigger = update.getTrigger();
-        Long newTriggerId = updateTrigger == null ? null : updateTrigger.getId();
-        Long newMediaId = update.getMediaId();
-        MediaType newMediaType = update.getMediaType();
-
-        return (newTriggerId != null && !newTriggerId.equals(current.getTrigger().getId())) ||
-                (newMediaId != null && !newMediaId.equals(current.getMediaId())) ||
-                (newMediaType != null && !newMediaType.equals(current.getMediaType()));
+    private void addToSummary(Warn warn) {
+        summaryRepository.addWarn(warn.getMediaId(), warn.getMediaType().name(), warn.getTrigger().getId(), warn.getExpositionLevel());
     }
 
 }
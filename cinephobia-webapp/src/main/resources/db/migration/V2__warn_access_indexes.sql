@@ -0,0 +1,17 @@
+/* Media and profile warn listings seek by id within a media or a user */
+CREATE INDEX IDX_Warn_Media ON warn (media_type, media_id, id);
+CREATE INDEX IDX_Warn_User ON warn (user_id, id);
+
+/* The implicit foreign key index on user_id is now covered by IDX_Warn_User.
+   Its name was generated by MySQL, so it is only dropped where it exists with that name and column alone */
+SET @drop_user_index = (
+    SELECT IF(COUNT(*) > 0, 'DROP INDEX user_id ON warn', 'DO 0') FROM (
+        SELECT index_name FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'warn' AND index_name = 'user_id'
+        GROUP BY index_name
+        HAVING COUNT(*) = 1 AND MAX(column_name) = 'user_id'
+    ) AS user_index
+);
+PREPARE drop_user_index FROM @drop_user_index;
+EXECUTE drop_user_index;
+DEALLOCATE PREPARE drop_user_index;
@@ -0,0 +1,3 @@
+/* Case-insensitive email lookups compare LOWER(email), which the optimizer answers from this column's index */
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(255) AS (LOWER(email)) STORED NOT NULL;
+CREATE UNIQUE INDEX IDX_Users_Email_Normalized ON users (email_normalized);
@@ -0,0 +1,7 @@
+/* Admin display name searches match ngram phrases instead of scanning with LIKE '%search%' */
+/* The default stopwords would drop every ngram containing one, such as "a" or "i" */
+SET SESSION innodb_ft_enable_stopword = OFF;
+CREATE FULLTEXT INDEX IDX_Users_Display_Name ON users (display_name) WITH PARSER ngram;
+SET SESSION innodb_ft_enable_stopword = DEFAULT;
+
+/* Email prefix searches are range reads on IDX_Users_Email_Normalized, from V3 */
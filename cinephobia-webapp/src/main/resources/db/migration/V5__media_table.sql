@@ -0,0 +1,11 @@
+/* TMDB media metadata, it was only created on fresh volumes by the docker init script */
+CREATE TABLE IF NOT EXISTS media(
+    id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    overview TEXT,
+    poster_path VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL, /* Stale rows are refreshed from TMDB */
+    PRIMARY KEY (id, type),
+    INDEX IDX_Media_Updated (updated_at)
+);
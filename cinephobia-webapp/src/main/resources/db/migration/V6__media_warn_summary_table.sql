@@ -0,0 +1,16 @@
+/* Warn totals per media and trigger, it was only created on fresh volumes by the docker init script */
+CREATE TABLE IF NOT EXISTS media_warn_summary( /* Maintained with each warn change, and rebuilt from warn by a scheduled job */
+    media_id BIGINT NOT NULL,
+    media_type VARCHAR(255) NOT NULL,
+    trigger_id BIGINT NOT NULL,
+    warn_count INT NOT NULL,
+    exposition_total INT NOT NULL,
+    max_exposition_level TINYINT NOT NULL,
+    FOREIGN KEY (trigger_id) REFERENCES triggr(id) ON UPDATE CASCADE ON DELETE CASCADE,
+    PRIMARY KEY (media_id, media_type, trigger_id)
+);
+
+/* Existing warns are summarized now, rather than at the next scheduled rebuild */
+INSERT IGNORE INTO media_warn_summary(media_id, media_type, trigger_id, warn_count, exposition_total, max_exposition_level)
+SELECT media_id, media_type, trigger_id, COUNT(*), SUM(exposition_level), MAX(exposition_level) FROM warn
+GROUP BY media_id, media_type, trigger_id;
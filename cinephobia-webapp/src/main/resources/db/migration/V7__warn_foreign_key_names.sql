@@ -0,0 +1,25 @@
+/* Names the warn foreign keys, so their violations are told apart by constraint name.
+   Their current names were generated by MySQL, so they are looked up first */
+SET @trigger_foreign_key = (
+    SELECT constraint_name FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE() AND table_name = 'warn' AND column_name = 'trigger_id' AND referenced_table_name = 'triggr'
+    LIMIT 1
+);
+SET @user_foreign_key = (
+    SELECT constraint_name FROM information_schema.key_column_usage
+    WHERE table_schema = DATABASE() AND table_name = 'warn' AND column_name = 'user_id' AND referenced_table_name = 'users'
+    LIMIT 1
+);
+SET @name_foreign_keys = CONCAT('ALTER TABLE warn',
+    IF(@trigger_foreign_key IS NULL, '', CONCAT(' DROP FOREIGN KEY `', @trigger_foreign_key, '`,')),
+    IF(@user_foreign_key IS NULL, '', CONCAT(' DROP FOREIGN KEY `', @user_foreign_key, '`,')),
+    ' ADD CONSTRAINT FK_Warn_Trigger FOREIGN KEY (trigger_id) REFERENCES triggr(id) ON UPDATE CASCADE ON DELETE CASCADE,',
+    ' ADD CONSTRAINT FK_Warn_User FOREIGN KEY (user_id) REFERENCES users(id) ON UPDATE CASCADE ON DELETE CASCADE'
+);
+
+/* Existing rows were checked by the previous keys, so they are not checked again and the table is not copied */
+SET foreign_key_checks = 0;
+PREPARE name_foreign_keys FROM @name_foreign_keys;
+EXECUTE name_foreign_keys;
+DEALLOCATE PREPARE name_foreign_keys;
+SET foreign_key_checks = 1;
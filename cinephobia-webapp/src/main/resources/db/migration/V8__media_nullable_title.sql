@@ -0,0 +1,2 @@
+/* TMDB has medias without a title or name, they are stored and shown untitled */
+ALTER TABLE media MODIFY title VARCHAR(255);
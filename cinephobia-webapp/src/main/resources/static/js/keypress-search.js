@@ -13,6 +13,7 @@ function openSearchbar(event) {
 
     searchModal.focus();
     searchModal.value += event.key;
+    searchModal.dispatchEvent(new Event("input")); // Shows suggestions for the first letter
 }
 
 function onDOMLoaded() {
@@ -0,0 +1,91 @@
+package fr.backendt.cinephobia.benchmarks;
+
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.models.User;
+import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares a ModelMapper created for every request with the shared mappers of {@link ModelMapperConfig}.
+ * Run the main method from the test classpath, the GC profiler reports the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelMapperBenchmark {
+
+    private ModelMapper sharedMapper;
+    private ModelMapper sharedUpdateMapper;
+
+    private List<Warn> warnPage;
+    private Trigger triggerUpdate;
+
+    @Setup
+    public void initBenchmark() {
+        ModelMapperConfig config = new ModelMapperConfig();
+        sharedMapper = config.modelMapper();
+        sharedUpdateMapper = config.updateMapper();
+
+        User user = new User(1L, "John Doe", "john.doe@test.com", "HASHED", "USER");
+        warnPage = LongStream.rangeClosed(1, 50) // Default warn page size
+                .mapToObj(id -> new Warn(id, new Trigger(id, "Trigger " + id, "Description " + id), user, id, MediaType.MOVIE, 5))
+                .toList();
+        triggerUpdate = new Trigger(null, "New description");
+    }
+
+    @Benchmark
+    public List<WarnResponseDTO> perCallWarnPage() {
+        ModelMapper mapper = new ModelMapper(); // Former controller pattern
+        return warnPage.stream()
+                .map(warn -> mapper.map(warn, WarnResponseDTO.class))
+                .toList();
+    }
+
+    @Benchmark
+    public List<WarnResponseDTO> sharedWarnPage() {
+        return warnPage.stream()
+                .map(warn -> sharedMapper.map(warn, WarnResponseDTO.class))
+                .toList();
+    }
+
+    @Benchmark
+    public Trigger perCallTriggerUpdate() {
+        ModelMapper mapper = new ModelMapper(); // Former service pattern
+        mapper.getConfiguration().setSkipNullEnabled(true);
+        Trigger trigger = new Trigger(1L, "Name", "Description");
+        mapper.map(triggerUpdate, trigger);
+        return trigger;
+    }
+
+    @Benchmark
+    public Trigger sharedTriggerUpdate() {
+        Trigger trigger = new Trigger(1L, "Name", "Description");
+        sharedUpdateMapper.map(triggerUpdate, trigger);
+        return trigger;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ModelMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
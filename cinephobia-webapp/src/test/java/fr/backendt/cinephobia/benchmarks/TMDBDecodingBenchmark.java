@@ -0,0 +1,114 @@
+package fr.backendt.cinephobia.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.TMDBJsonDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the default WebClient Jackson decoding of TMDB responses with {@link TMDBJsonDecoder}.
+ * Run the main method from the test classpath, the GC profiler reports the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TMDBDecodingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private TMDBJsonDecoder decoder;
+
+    private byte[] movieJson;
+    private byte[] searchJson;
+
+    @Setup
+    public void initBenchmark() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Same configuration as the WebClient codec
+        decoder = new TMDBJsonDecoder();
+
+        movieJson = createMovieJson(507110).getBytes(StandardCharsets.UTF_8);
+        String results = IntStream.range(0, 20)
+                .mapToObj(TMDBDecodingBenchmark::createSearchResultJson)
+                .collect(Collectors.joining(","));
+        searchJson = ("{\"page\":1,\"results\":[" + results + "],\"total_pages\":500,\"total_results\":10000}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String createMovieJson(int id) { // Same fields as a TMDB movie details response
+        return """
+                {"adult":false,"backdrop_path":"/backdrop%1$d.jpg","belongs_to_collection":{"id":1,"name":"Collection","poster_path":"/collection.jpg","backdrop_path":"/collection_backdrop.jpg"},
+                "budget":63000000,"genres":[{"id":18,"name":"Drama"},{"id":53,"name":"Thriller"},{"id":35,"name":"Comedy"}],
+                "homepage":"https://example.com/movie/%1$d","id":%1$d,"imdb_id":"tt%1$d","original_language":"en","original_title":"Original title %1$d",
+                "overview":"A ticking-time-bomb insomniac and a slippery soap salesman channel primal male aggression into a shocking new form of therapy.",
+                "popularity":61.416,"poster_path":"/poster%1$d.jpg",
+                "production_companies":[{"id":508,"logo_path":"/logo1.png","name":"Regency Enterprises","origin_country":"US"},{"id":711,"logo_path":null,"name":"Fox 2000 Pictures","origin_country":"US"}],
+                "production_countries":[{"iso_3166_1":"DE","name":"Germany"},{"iso_3166_1":"US","name":"United States of America"}],
+                "release_date":"1999-10-15","revenue":100853753,"runtime":139,
+                "spoken_languages":[{"english_name":"English","iso_639_1":"en","name":"English"}],
+                "status":"Released","tagline":"Mischief. Mayhem. Soap.","title":"Movie %1$d","video":false,"vote_average":8.433,"vote_count":26280}""".formatted(id);
+    }
+
+    private static String createSearchResultJson(int id) { // Same fields as a TMDB search result
+        return """
+                {"adult":false,"backdrop_path":"/backdrop%1$d.jpg","genre_ids":[18,53,35],"id":%1$d,"original_language":"en",
+                "original_title":"Original title %1$d","overview":"A ticking-time-bomb insomniac and a slippery soap salesman channel primal male aggression.",
+                "popularity":61.416,"poster_path":"/poster%1$d.jpg","release_date":"1999-10-15","title":"Movie %1$d","video":false,
+                "vote_average":8.433,"vote_count":26280}""".formatted(id);
+    }
+
+    @Benchmark
+    public Media jacksonMedia() throws IOException {
+        Media media = objectMapper.readValue(movieJson, Media.class);
+        media.setType(MediaType.MOVIE);
+        return media;
+    }
+
+    @Benchmark
+    public Media streamingMedia() throws IOException {
+        return decoder.decodeMedia(new ByteArrayInputStream(movieJson), MediaType.MOVIE);
+    }
+
+    @Benchmark
+    public SearchResults jacksonSearchResults() throws IOException {
+        SearchResults results = objectMapper.readValue(searchJson, SearchResults.class);
+        List<Media> medias = results.getResults().stream() // Former MediaRepository pass setting the media type
+                .map(media -> {
+                    media.setType(MediaType.MOVIE);
+                    return media;
+                }).toList();
+        results.setResults(medias);
+        return results;
+    }
+
+    @Benchmark
+    public SearchResults streamingSearchResults() throws IOException {
+        return decoder.decodeSearchResults(new ByteArrayInputStream(searchJson), MediaType.MOVIE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TMDBDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
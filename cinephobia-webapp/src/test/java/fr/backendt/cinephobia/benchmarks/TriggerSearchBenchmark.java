@@ -0,0 +1,85 @@
+package fr.backendt.cinephobia.benchmarks;
+
+import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.repositories.TriggerRepository;
+import fr.backendt.cinephobia.repositories.TriggerSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the trigram index with a scan over every trigger, which is what LIKE '%search%' asks of the database.
+ * The scan runs in memory, so it is a lower bound of the query cost, without the round-trip.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TriggerSearchBenchmark {
+
+    private static final int TRIGGER_COUNT = 100_000;
+    private static final String[] PREFIXES = {"arachno", "acro", "claustro", "hemo", "nycto", "thalasso", "aero", "cyno", "ophidio", "trypo",
+            "agora", "astra", "entomo", "myso", "necro", "pyro", "odonto", "ornitho", "trauma", "xeno"};
+    private static final String[] SUBJECTS = {"spiders", "heights", "small spaces", "blood", "darkness", "deep water", "flying", "dogs", "snakes", "holes",
+            "crowds", "storms", "insects", "germs", "corpses", "fire", "dentists", "birds", "injuries", "strangers"};
+
+    @Param({"4242", "claustro", "deep wat"}) // Rare, name prefix and description searches
+    private String search;
+
+    private final Pageable pageable = PageRequest.ofSize(50); // Default trigger page size
+
+    private List<Trigger> triggers;
+    private TriggerSearchIndex searchIndex;
+
+    @Setup
+    public void initBenchmark() {
+        Random random = new Random(42);
+        triggers = LongStream.rangeClosed(1, TRIGGER_COUNT)
+                .mapToObj(id -> new Trigger(id,
+                        PREFIXES[random.nextInt(PREFIXES.length)] + "phobia " + id,
+                        "Fear of " + SUBJECTS[random.nextInt(SUBJECTS.length)] + " #" + Long.toHexString(random.nextLong())))
+                .toList();
+
+        searchIndex = new TriggerSearchIndex(mock(TriggerRepository.class));
+        triggers.forEach(searchIndex::index);
+    }
+
+    @Benchmark
+    public List<Trigger> likeScan() {
+        String pattern = search.toLowerCase(Locale.ROOT);
+        return triggers.stream()
+                .filter(trigger -> trigger.getName().toLowerCase(Locale.ROOT).contains(pattern)
+                        || trigger.getDescription().toLowerCase(Locale.ROOT).contains(pattern))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    @Benchmark
+    public Slice<Trigger> trigramIndex() {
+        return searchIndex.search(search, null, 0L, pageable);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TriggerSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,55 @@
+package fr.backendt.cinephobia.configurations;
+
+import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.repositories.TriggerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SecondLevelCacheMetricsTests {
+
+    @Autowired
+    private TriggerRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void countCachedTriggerHitsTest() {
+        // GIVEN
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new SecondLevelCacheMetrics(entityManagerFactory).bindTo(registry);
+
+        Long triggerId = 1L;
+        repository.findById(triggerId);
+        entityManager.clear();
+        double hitsBefore = getTriggerCacheHits(registry);
+
+        // WHEN
+        repository.findById(triggerId);
+
+        // THEN
+        assertThat(getTriggerCacheHits(registry)).isEqualTo(hitsBefore + 1);
+    }
+
+    private double getTriggerCacheHits(MeterRegistry registry) {
+        return registry.get("cache.gets")
+                .tag("cache", Trigger.class.getName())
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+
+}
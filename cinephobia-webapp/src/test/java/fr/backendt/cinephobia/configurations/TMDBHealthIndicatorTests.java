@@ -0,0 +1,88 @@
+package fr.backendt.cinephobia.configurations;
+
+import fr.backendt.cinephobia.repositories.CircuitBreaker;
+import fr.backendt.cinephobia.repositories.MediaRepository;
+import fr.backendt.cinephobia.repositories.MediaRepository.TokenStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mockito;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class TMDBHealthIndicatorTests {
+
+    private TMDBHealthIndicator healthIndicator;
+    private MediaRepository mediaRepository;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void initTests() {
+        mediaRepository = Mockito.mock(MediaRepository.class);
+        circuitBreaker = Mockito.mock(CircuitBreaker.class);
+        healthIndicator = new TMDBHealthIndicator(mediaRepository, circuitBreaker);
+
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void validTokenHealthTest() {
+        // GIVEN
+        Health result;
+
+        when(mediaRepository.getTokenStatus()).thenReturn(TokenStatus.VALID);
+        // WHEN
+        result = healthIndicator.health();
+
+        // THEN
+        assertThat(result.getStatus()).isEqualTo(Status.UP);
+        assertThat(result.getDetails()).containsEntry("token", "valid");
+    }
+
+    @Test
+    void validatingTokenHealthTest() {
+        // GIVEN
+        Health result;
+
+        when(mediaRepository.getTokenStatus()).thenReturn(TokenStatus.UNKNOWN);
+        // WHEN
+        result = healthIndicator.health();
+
+        // THEN
+        assertThat(result.getStatus()).isEqualTo(Status.UNKNOWN);
+    }
+
+    @EnumSource(value = TokenStatus.class, names = {"INVALID", "UNREACHABLE"})
+    @ParameterizedTest
+    void failedValidationHealthTest(TokenStatus tokenStatus) {
+        // GIVEN
+        Health result;
+
+        when(mediaRepository.getTokenStatus()).thenReturn(tokenStatus);
+        // WHEN
+        result = healthIndicator.health();
+
+        // THEN
+        assertThat(result.getStatus()).isEqualTo(TMDBHealthIndicator.DEGRADED);
+    }
+
+    @Test
+    void openCircuitHealthTest() {
+        // GIVEN
+        Health result;
+
+        when(mediaRepository.getTokenStatus()).thenReturn(TokenStatus.VALID);
+        when(circuitBreaker.getState()).thenReturn(CircuitBreaker.State.OPEN);
+        // WHEN
+        result = healthIndicator.health();
+
+        // THEN
+        assertThat(result.getStatus()).isEqualTo(TMDBHealthIndicator.DEGRADED);
+        assertThat(result.getDetails()).containsEntry("circuitBreaker", "open");
+    }
+
+}
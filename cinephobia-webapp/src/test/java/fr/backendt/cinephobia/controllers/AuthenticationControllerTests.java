@@ -1,5 +1,6 @@
 package fr.backendt.cinephobia.controllers;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.models.User;
 import fr.backendt.cinephobia.models.dto.UserDTO;
@@ -12,6 +13,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,6 +28,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WithMockUser
+@Import(ModelMapperConfig.class)
 @WebMvcTest(AuthenticationController.class)
 class AuthenticationControllerTests {
 
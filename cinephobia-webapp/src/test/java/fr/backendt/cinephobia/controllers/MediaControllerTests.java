@@ -1,30 +1,40 @@
 package fr.backendt.cinephobia.controllers;
 
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
+import fr.backendt.cinephobia.exceptions.MediaUnavailableException;
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.SearchSource;
 import fr.backendt.cinephobia.services.MediaService;
+import fr.backendt.cinephobia.services.SearchCanceller;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.util.List;
+import java.util.Map;
 
-import static java.util.concurrent.CompletableFuture.completedFuture;
-import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WithMockUser
 @WebMvcTest(MediaController.class)
+@Import(SearchCanceller.class)
 class MediaControllerTests {
 
     @Autowired
@@ -65,7 +75,7 @@ class MediaControllerTests {
         int defaultPage = 1;
         SearchResults searchResults = new SearchResults(defaultPage, 1, mediaList.size(), mediaList);
 
-        when(service.getMedias(any(), anyInt())).thenReturn(completedFuture(searchResults));
+        when(service.getMedias(any(), anyInt(), any())).thenReturn(Mono.just(searchResults));
         MvcResult result;
         // WHEN
         result = mvc.perform(request)
@@ -80,7 +90,7 @@ class MediaControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("mediasPage", searchResults));
 
-        verify(service).getMedias(null, defaultPage);
+        verify(service).getMedias(null, defaultPage, null);
     }
 
     @Test
@@ -95,7 +105,7 @@ class MediaControllerTests {
         int defaultPage = 1;
         SearchResults searchResults = new SearchResults(defaultPage, 1, mediaList.size(), mediaList);
 
-        when(service.getMedias(any(), anyInt())).thenReturn(completedFuture(searchResults));
+        when(service.getMedias(any(), anyInt(), any())).thenReturn(Mono.just(searchResults));
         MvcResult result;
         // WHEN
         result = mvc.perform(request)
@@ -110,7 +120,120 @@ class MediaControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("mediasPage", searchResults));
 
-        verify(service).getMedias(search, defaultPage);
+        verify(service).getMedias(search, defaultPage, null);
+    }
+
+    @Test
+    void cancelSupersededSearchTest() throws Exception {
+        // GIVEN
+        RequestBuilder olderRequest = get("/media")
+                .header("Hx-Request", "true")
+                .header("Search-Id", "results")
+                .param("search", "jav");
+        RequestBuilder newerRequest = get("/media")
+                .header("Hx-Request", "true")
+                .header("Search-Id", "results")
+                .param("search", "java");
+
+        SearchResults searchResults = new SearchResults(1, 1, mediaList.size(), mediaList);
+        Sinks.One<SearchResults> olderSearch = Sinks.one();
+
+        when(service.getMedias("jav", 1, null)).thenReturn(olderSearch.asMono());
+        when(service.getMedias("java", 1, null)).thenReturn(Mono.just(searchResults));
+        MvcResult olderResult;
+        MvcResult newerResult;
+        // WHEN
+        olderResult = mvc.perform(olderRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        newerResult = mvc.perform(newerRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(olderResult))
+                .andExpect(status().isNoContent())
+                .andExpect(content().string(""));
+        mvc.perform(asyncDispatch(newerResult))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", searchResults));
+        assertThat(olderSearch.currentSubscriberCount()).isZero();
+    }
+
+    @Test
+    void keepSearchesOfOtherUsersTest() throws Exception {
+        // GIVEN
+        RequestBuilder otherUserRequest = get("/media")
+                .header("Hx-Request", "true")
+                .header("Search-Id", "results")
+                .param("search", "jav")
+                .with(user("other"));
+        RequestBuilder userRequest = get("/media")
+                .header("Hx-Request", "true")
+                .header("Search-Id", "results")
+                .param("search", "java");
+
+        SearchResults otherUserResults = new SearchResults(1, 1, 1, mediaList.subList(0, 1));
+        SearchResults userResults = new SearchResults(1, 1, mediaList.size(), mediaList);
+        Sinks.One<SearchResults> otherUserSearch = Sinks.one();
+
+        when(service.getMedias("jav", 1, null)).thenReturn(otherUserSearch.asMono());
+        when(service.getMedias("java", 1, null)).thenReturn(Mono.just(userResults));
+        MvcResult otherUserResult;
+        MvcResult userResult;
+        // WHEN
+        otherUserResult = mvc.perform(otherUserRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        userResult = mvc.perform(userRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        otherUserSearch.tryEmitValue(otherUserResults);
+
+        // THEN
+        mvc.perform(asyncDispatch(otherUserResult))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", otherUserResults));
+        mvc.perform(asyncDispatch(userResult))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", userResults));
+    }
+
+    @Test
+    void keepSearchesWithoutIdTest() throws Exception {
+        // GIVEN
+        RequestBuilder firstPageRequest = get("/media")
+                .header("Hx-Request", "true")
+                .param("search", "java");
+        RequestBuilder secondPageRequest = get("/media")
+                .header("Hx-Request", "true")
+                .param("search", "java")
+                .param("page", "2");
+
+        SearchResults firstPage = new SearchResults(1, 2, mediaList.size(), mediaList);
+        SearchResults secondPage = new SearchResults(2, 2, mediaList.size(), mediaList);
+        Sinks.One<SearchResults> firstPageSearch = Sinks.one();
+
+        when(service.getMedias("java", 1, null)).thenReturn(firstPageSearch.asMono());
+        when(service.getMedias("java", 2, null)).thenReturn(Mono.just(secondPage));
+        MvcResult firstPageResult;
+        MvcResult secondPageResult;
+        // WHEN
+        firstPageResult = mvc.perform(firstPageRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        secondPageResult = mvc.perform(secondPageRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        firstPageSearch.tryEmitValue(firstPage);
+
+        // THEN
+        mvc.perform(asyncDispatch(firstPageResult))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", firstPage));
+        mvc.perform(asyncDispatch(secondPageResult))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", secondPage));
     }
 
     @Test
@@ -123,7 +246,7 @@ class MediaControllerTests {
 
         SearchResults searchResults = new SearchResults(page, page, mediaList.size(), mediaList);
 
-        when(service.getMedias(any(), anyInt())).thenReturn(completedFuture(searchResults));
+        when(service.getMedias(any(), anyInt(), any())).thenReturn(Mono.just(searchResults));
         MvcResult result;
         // WHEN
         result = mvc.perform(request)
@@ -138,7 +261,36 @@ class MediaControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("mediasPage", searchResults));
 
-        verify(service).getMedias(null, page);
+        verify(service).getMedias(null, page, null);
+    }
+
+    @Test
+    void getMediasNextPageFromSameSourceTest() throws Exception {
+        // GIVEN
+        int page = 2;
+        String search = "java";
+        RequestBuilder request = get("/media")
+                .header("Hx-Request", "true")
+                .param("search", search)
+                .param("page", String.valueOf(page))
+                .param("source", "index");
+
+        SearchResults searchResults = new SearchResults(page, 3, mediaList.size(), mediaList);
+        searchResults.setSource(SearchSource.INDEX);
+
+        when(service.getMedias(any(), anyInt(), any())).thenReturn(Mono.just(searchResults));
+        MvcResult result;
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mediasPage", searchResults));
+        verify(service).getMedias(search, page, SearchSource.INDEX);
     }
 
     @Test
@@ -150,7 +302,7 @@ class MediaControllerTests {
         Media media = mediaList.get(0);
         MvcResult result;
 
-        when(service.getMovie(any())).thenReturn(completedFuture(media));
+        when(service.getMovie(any())).thenReturn(Mono.just(media));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -178,7 +330,7 @@ class MediaControllerTests {
         Media media = mediaList.get(0);
         MvcResult result;
 
-        when(service.getMovie(any())).thenReturn(completedFuture(media));
+        when(service.getMovie(any())).thenReturn(Mono.just(media));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -205,7 +357,7 @@ class MediaControllerTests {
         Media media = mediaList.get(0);
         MvcResult result;
 
-        when(service.getSeries(any())).thenReturn(completedFuture(media));
+        when(service.getSeries(any())).thenReturn(Mono.just(media));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -232,7 +384,7 @@ class MediaControllerTests {
         Media media = mediaList.get(0);
         MvcResult result;
 
-        when(service.getSeries(any())).thenReturn(completedFuture(media));
+        when(service.getSeries(any())).thenReturn(Mono.just(media));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -259,7 +411,7 @@ class MediaControllerTests {
         MvcResult result;
 
         when(service.getMovie(any()))
-                .thenReturn(failedFuture(new EntityNotFoundException("Movie not found")));
+                .thenReturn(Mono.error(new EntityNotFoundException("Movie not found")));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -273,4 +425,77 @@ class MediaControllerTests {
         verify(service).getMovie(movieId);
     }
 
+    @Test
+    void getUnavailableMediaTest() throws Exception {
+        // GIVEN
+        long movieId = 1L;
+        RequestBuilder request = get("/media/movie/" + movieId);
+
+        MvcResult result;
+
+        when(service.getMovie(any()))
+                .thenReturn(Mono.error(new MediaUnavailableException("Media is temporarily unavailable")));
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getMediaCardsTest() throws Exception {
+        // GIVEN
+        Media series = mediaList.get(0);
+        Media movie = mediaList.get(1);
+        MediaId seriesId = new MediaId(series.getId(), series.getType());
+        MediaId movieId = new MediaId(movie.getId(), movie.getType());
+        MediaId unknownId = new MediaId(404L, fr.backendt.cinephobia.models.MediaType.MOVIE);
+
+        RequestBuilder request = get("/media/cards")
+                .param("media", seriesId.getKey(), movieId.getKey(), seriesId.getKey(), unknownId.getKey(), "invalid:key");
+
+        MvcResult result;
+
+        when(service.getMediasById(any())).thenReturn(Mono.just(Map.of(seriesId, series, movieId, movie)));
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("fragments/medias :: mediaCards"))
+                .andExpect(model().attribute("missingCards", List.of(unknownId.getCardClass())))
+                .andExpect(content().string(containsString(series.getCardClass())))
+                .andExpect(content().string(containsString(movie.getCardClass())));
+
+        verify(service).getMediasById(List.of(seriesId, movieId, unknownId));
+    }
+
+    @Test
+    void getSuggestionsTest() throws Exception {
+        // GIVEN
+        String search = "ipsum";
+        RequestBuilder request = get("/media/suggest")
+                .param("q", search);
+
+        when(service.getSuggestions(any())).thenReturn(mediaList);
+        // WHEN
+        mvc.perform(request)
+
+        // THEN
+                .andExpect(status().isOk())
+                .andExpect(view().name("fragments/medias :: suggestions"))
+                .andExpect(model().attribute("suggestions", mediaList))
+                .andExpect(content().string(containsString(mediaList.get(0).getMediaUri())))
+                .andExpect(content().string(containsString(mediaList.get(1).getTitle())));
+        verify(service).getSuggestions(search);
+    }
+
 }
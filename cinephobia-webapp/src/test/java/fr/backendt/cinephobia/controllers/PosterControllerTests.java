@@ -0,0 +1,100 @@
+package fr.backendt.cinephobia.controllers;
+
+import fr.backendt.cinephobia.configurations.SpringSecurityConfig;
+import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
+import fr.backendt.cinephobia.services.PosterService;
+import fr.backendt.cinephobia.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Import(SpringSecurityConfig.class)
+@WebMvcTest(PosterController.class)
+class PosterControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private PosterService service;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void getPosterTest() throws Exception {
+        // GIVEN
+        RequestBuilder request = get("/poster/w342/poster.jpg");
+        Path posterFile = Files.createTempFile("poster", ".jpg");
+        Files.writeString(posterFile, "poster");
+
+        when(service.getPoster(any(), any())).thenReturn(Mono.just(posterFile));
+        MvcResult result;
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"w342-poster.jpg\""))
+                .andExpect(header().stringValues(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().string("poster"));
+        verify(service).getPoster("w342", "poster.jpg");
+    }
+
+    @Test
+    void getNotModifiedPosterTest() throws Exception {
+        // GIVEN
+        RequestBuilder request = get("/poster/w342/poster.jpg")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"w342-poster.jpg\"");
+
+        MvcResult result;
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"w342-poster.jpg\""));
+        verify(service, never()).getPoster(any(), any());
+    }
+
+    @Test
+    void getUnknownPosterTest() throws Exception {
+        // GIVEN
+        RequestBuilder request = get("/poster/original/poster.jpg");
+
+        when(service.getPoster(any(), any())).thenReturn(Mono.error(new EntityNotFoundException("Poster not found")));
+        MvcResult result;
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+}
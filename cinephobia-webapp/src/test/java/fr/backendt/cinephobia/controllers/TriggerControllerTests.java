@@ -1,9 +1,11 @@
 package fr.backendt.cinephobia.controllers;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.models.dto.TriggerDTO;
+import fr.backendt.cinephobia.repositories.ScoredSlice;
 import fr.backendt.cinephobia.services.TriggerService;
 import fr.backendt.cinephobia.utils.UrlEncodedFormSerializer;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +15,11 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -33,6 +36,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WithMockUser
+@Import(ModelMapperConfig.class)
 @WebMvcTest(TriggerController.class)
 class TriggerControllerTests {
 
@@ -211,16 +215,16 @@ class TriggerControllerTests {
                 .header("Hx-Request", "true")
                 .param("search", search);
 
-        int defaultPage = 0;
+        long defaultAfterId = 0L;
         int defaultSize = 50;
-        Pageable pageable = PageRequest.of(defaultPage, defaultSize);
+        Pageable pageable = PageRequest.ofSize(defaultSize);
 
         List<Trigger> triggers = List.of(trigger);
-        Page<Trigger> triggerPage = new PageImpl<>(triggers, pageable, triggers.size());
+        Slice<Trigger> triggerPage = new SliceImpl<>(triggers, pageable, false);
 
         MvcResult result;
 
-        when(service.getTriggers(any(), any())).thenReturn(completedFuture(triggerPage));
+        when(service.getTriggers(any(), any(), any(), any())).thenReturn(completedFuture(triggerPage));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -233,27 +237,30 @@ class TriggerControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("triggers", triggerPage));
 
-        verify(service).getTriggers(search, pageable);
+        verify(service).getTriggers(search, null, defaultAfterId, pageable);
     }
 
     @Test
-    void getTriggersWithPageAndSizeTest() throws Exception {
+    void getTriggersAfterIdWithSizeTest() throws Exception {
         // GIVEN
-        int page = 2;
+        long afterId = 2L;
+        int afterScore = 3;
         int size = 5;
         RequestBuilder request = get("/trigger")
                 .header("Hx-Request", "true")
-                .param("page", String.valueOf(page))
+                .param("search", "test")
+                .param("after", String.valueOf(afterId))
+                .param("afterScore", String.valueOf(afterScore))
                 .param("size", String.valueOf(size));
 
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.ofSize(size);
 
         List<Trigger> triggers = List.of(trigger);
-        Page<Trigger> triggerPage = new PageImpl<>(triggers, pageable, triggers.size());
+        Slice<Trigger> triggerPage = new ScoredSlice<>(triggers, pageable, true, 1);
 
         MvcResult result;
 
-        when(service.getTriggers(any(), any())).thenReturn(completedFuture(triggerPage));
+        when(service.getTriggers(any(), any(), any(), any())).thenReturn(completedFuture(triggerPage));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -264,9 +271,41 @@ class TriggerControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(view().name("fragments/triggers :: triggerList"))
                 .andExpect(model().hasNoErrors())
-                .andExpect(model().attribute("triggers", triggerPage));
+                .andExpect(model().attribute("triggers", triggerPage))
+                .andExpect(model().attribute("afterScore", 1));
+
+        verify(service).getTriggers("test", afterScore, afterId, pageable);
+    }
+
+    @Test
+    void getTriggersAfterIdFromDatabaseTest() throws Exception {
+        // GIVEN
+        long afterId = 2L;
+        RequestBuilder request = get("/trigger")
+                .header("Hx-Request", "true")
+                .param("search", "test")
+                .param("after", String.valueOf(afterId));
+
+        Pageable pageable = PageRequest.ofSize(50);
+
+        List<Trigger> triggers = List.of(trigger);
+        Slice<Trigger> triggerPage = new SliceImpl<>(triggers, pageable, true);
+
+        MvcResult result;
+
+        when(service.getTriggers(any(), any(), any(), any())).thenReturn(completedFuture(triggerPage));
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("triggers", triggerPage))
+                .andExpect(model().attributeDoesNotExist("afterScore"));
 
-        verify(service).getTriggers(null, pageable);
+        verify(service).getTriggers("test", null, afterId, pageable);
     }
 
     @Test
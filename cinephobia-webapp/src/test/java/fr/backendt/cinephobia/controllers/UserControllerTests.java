@@ -1,5 +1,6 @@
 package fr.backendt.cinephobia.controllers;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
@@ -20,10 +21,11 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.session.SessionInformation;
 import org.springframework.security.core.session.SessionRegistry;
@@ -45,6 +47,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WithMockUser
+@Import(ModelMapperConfig.class)
 @WebMvcTest(UserController.class)
 class UserControllerTests {
 
@@ -104,27 +107,27 @@ class UserControllerTests {
 
     @CsvSource({
             "0,50,0,50",
-            "1,100,1,100",
+            "12,100,12,100",
             "0,1,0,1",
             "-1,50,0,50",
             "0,0,0,1",
             "0,600,0,500"
     })
     @ParameterizedTest
-    void getUsersTest(Integer pageIndex, Integer pageSize, Integer expectedIndex, Integer expectedSize) throws Exception {
+    void getUsersTest(Long afterId, Integer pageSize, Long expectedAfterId, Integer expectedSize) throws Exception {
         // GIVEN
         RequestBuilder request = get("/admin/user")
                 .header("Hx-Request", "true")
-                .param("page", String.valueOf(pageIndex))
+                .param("after", String.valueOf(afterId))
                 .param("size", String.valueOf(pageSize));
 
-        Page<User> userPage = new PageImpl<>(userList);
-        Page<UserResponseDTO> expectedPage = new PageImpl<>(dtoList);
+        Slice<User> userPage = new SliceImpl<>(userList);
+        Slice<UserResponseDTO> expectedPage = new SliceImpl<>(dtoList);
 
-        Pageable expectedPageRequest = PageRequest.of(expectedIndex, expectedSize);
+        Pageable expectedPageRequest = PageRequest.ofSize(expectedSize);
         MvcResult result;
 
-        when(service.getUsers(any(), any()))
+        when(service.getUsers(any(), any(), any()))
                 .thenReturn(completedFuture(userPage));
         // WHEN
         result = mvc.perform(request)
@@ -139,7 +142,7 @@ class UserControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("users", expectedPage));
 
-        verify(service).getUsers(null, expectedPageRequest);
+        verify(service).getUsers(null, expectedAfterId, expectedPageRequest);
     }
 
     @Test
@@ -150,12 +153,13 @@ class UserControllerTests {
                 .header("Hx-Request", "true")
                 .param("search", nameSearch);
 
-        Pageable defaultPageRequest = PageRequest.of(0, 50);
+        long defaultAfterId = 0L;
+        Pageable defaultPageRequest = PageRequest.ofSize(50);
 
         MvcResult result;
 
-        Page<User> userPage = new PageImpl<>(userList);
-        when(service.getUsers(any(), any()))
+        Slice<User> userPage = new SliceImpl<>(userList);
+        when(service.getUsers(any(), any(), any()))
                 .thenReturn(completedFuture(userPage));
         // WHEN
         result = mvc.perform(request)
@@ -170,7 +174,7 @@ class UserControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attributeExists("users"));
 
-        verify(service).getUsers(nameSearch, defaultPageRequest);
+        verify(service).getUsers(nameSearch, defaultAfterId, defaultPageRequest);
     }
 
     @Test
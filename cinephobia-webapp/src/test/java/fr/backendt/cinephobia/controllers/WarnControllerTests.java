@@ -1,13 +1,13 @@
 package fr.backendt.cinephobia.controllers;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.*;
 import fr.backendt.cinephobia.models.dto.TriggerDTO;
 import fr.backendt.cinephobia.models.dto.WarnDTO;
 import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
-import fr.backendt.cinephobia.services.TriggerService;
-import fr.backendt.cinephobia.services.UserService;
+import fr.backendt.cinephobia.models.dto.WarnSummaryDTO;
 import fr.backendt.cinephobia.services.WarnService;
 import fr.backendt.cinephobia.utils.UrlEncodedFormSerializer;
 import org.junit.jupiter.api.BeforeAll;
@@ -15,10 +15,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -32,10 +33,12 @@ import static java.util.concurrent.CompletableFuture.failedFuture;
 import static org.mockito.Mockito.*;
 import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WithMockUser
+@Import(ModelMapperConfig.class)
 @WebMvcTest(WarnController.class)
 class WarnControllerTests {
 
@@ -45,17 +48,12 @@ class WarnControllerTests {
     @MockBean
     private WarnService service;
 
-    @MockBean
-    private UserService userService;
-
-    @MockBean
-    private TriggerService triggerService;
-
     private static Media testMedia;
     private static List<Warn> testWarns;
     private static List<WarnResponseDTO> testResponseDTOs;
     private static WarnDTO testDTO;
     private static User testUser;
+    private static Warn testCreatedWarn;
 
     @BeforeAll
     static void initTests() {
@@ -69,25 +67,29 @@ class WarnControllerTests {
         testResponseDTOs = List.of(new WarnResponseDTO(4L, testMedia.getId(), testMedia.getType(), triggerDTO, 5));
 
         testDTO = new WarnDTO(4L, trigger.getId(), 5);
+
+        Trigger triggerReference = new Trigger();
+        triggerReference.setId(trigger.getId());
+        User userReference = new User();
+        userReference.setId(testUser.getId());
+        testCreatedWarn = new Warn(testDTO.getId(), triggerReference, userReference, testMedia.getId(), testMedia.getType(), testDTO.getExpositionLevel());
     }
 
     @Test
     void getWarnsForMediaTest() throws Exception {
         // GIVEN
-        int defaultPageIndex = 0;
+        long defaultAfterId = 0L;
         int defaultPageSize = 50;
         Long mediaId = testMedia.getId();
         MediaType mediaType = testMedia.getType();
         String uri = "/warn/%s/%s".formatted(mediaType, mediaId);
         RequestBuilder request = get(uri);
 
-        Page<Warn> warnPage = new PageImpl<>(testWarns);
-        CompletableFuture<Page<Warn>> warns = completedFuture(warnPage);
+        Slice<WarnResponseDTO> expectedWarns = new SliceImpl<>(testResponseDTOs);
+        CompletableFuture<Slice<WarnResponseDTO>> warns = completedFuture(expectedWarns);
+        Pageable expectedPage = PageRequest.ofSize(defaultPageSize);
 
-        Page<WarnResponseDTO> expectedWarns = new PageImpl<>(testResponseDTOs);
-        Pageable expectedPage = PageRequest.of(defaultPageIndex, defaultPageSize);
-
-        when(service.getWarnsForMedia(any(), any(), any()))
+        when(service.getWarnsForMedia(any(), any(), any(), any()))
                 .thenReturn(warns);
 
         MvcResult result;
@@ -105,26 +107,24 @@ class WarnControllerTests {
                 .andExpect(model().attribute("warnsUri", uri))
                 .andExpect(model().attribute("warnPage", expectedWarns));
 
-        verify(service).getWarnsForMedia(mediaId, mediaType, expectedPage);
+        verify(service).getWarnsForMedia(mediaId, mediaType, defaultAfterId, expectedPage);
     }
 
-    @WithMockUser(username = "user@test.com")
     @Test
     void getWarnsForUserTest() throws Exception {
         // GIVEN
-        int defaultPageIndex = 0;
+        long defaultAfterId = 0L;
         int defaultPageSize = 50;
-        String userEmail = "user@test.com";
-
-        RequestBuilder request = get("/warns");
+        Long userId = testUser.getId();
 
-        Page<Warn> warnPage = new PageImpl<>(testWarns);
-        CompletableFuture<Page<Warn>> warns = completedFuture(warnPage);
+        RequestBuilder request = get("/warns")
+                .with(user(new UserDetailsImpl(testUser)));
 
-        Page<WarnResponseDTO> expectedWarns = new PageImpl<>(testResponseDTOs);
-        Pageable expectedPage = PageRequest.of(defaultPageIndex, defaultPageSize);
+        Slice<WarnResponseDTO> expectedWarns = new SliceImpl<>(testResponseDTOs);
+        CompletableFuture<Slice<WarnResponseDTO>> warns = completedFuture(expectedWarns);
+        Pageable expectedPage = PageRequest.ofSize(defaultPageSize);
 
-        when(service.getWarnsForUser(any(), any()))
+        when(service.getWarnsForUser(any(), any(), any()))
                 .thenReturn(warns);
 
         MvcResult result;
@@ -141,23 +141,23 @@ class WarnControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("warns", expectedWarns));
 
-        verify(service).getWarnsForUser(userEmail, expectedPage);
+        verify(service).getWarnsForUser(userId, defaultAfterId, expectedPage);
     }
 
-    @WithMockUser(username = "unknown@test.com")
     @Test
     void getWarnsForUnknownUserTest() throws Exception {
         // GIVEN
-        int defaultPageIndex = 0;
+        long defaultAfterId = 0L;
         int defaultPageSize = 50;
-        String userEmail = "unknown@test.com";
+        Long userId = testUser.getId();
 
-        RequestBuilder request = get("/warns");
+        RequestBuilder request = get("/warns")
+                .with(user(new UserDetailsImpl(testUser)));
 
-        Page<WarnResponseDTO> expectedWarns = Page.empty();
-        Pageable expectedPage = PageRequest.of(defaultPageIndex, defaultPageSize);
+        Slice<WarnResponseDTO> expectedWarns = new SliceImpl<>(List.of());
+        Pageable expectedPage = PageRequest.ofSize(defaultPageSize);
 
-        when(service.getWarnsForUser(any(), any()))
+        when(service.getWarnsForUser(any(), any(), any()))
                 .thenReturn(failedFuture(new EntityNotFoundException("User not found")));
 
         MvcResult result;
@@ -174,7 +174,7 @@ class WarnControllerTests {
                 .andExpect(model().hasNoErrors())
                 .andExpect(model().attribute("warns", expectedWarns));
 
-        verify(service).getWarnsForUser(userEmail, expectedPage);
+        verify(service).getWarnsForUser(userId, defaultAfterId, expectedPage);
     }
 
     @Test
@@ -191,33 +191,69 @@ class WarnControllerTests {
                 .andReturn();
 
         // THEN
-        verify(service, never()).getWarnsForMedia(any(), any(), any());
+        verify(service, never()).getWarnsForMedia(any(), any(), any(), any());
     }
 
-    @WithMockUser(username = "test@email.com")
     @Test
-    void createWarnTest() throws Exception {
+    void getWarnSummaryForMediaTest() throws Exception {
+        // GIVEN
+        Long mediaId = testMedia.getId();
+        MediaType mediaType = testMedia.getType();
+        RequestBuilder request = get("/warn/%s/%s/summary".formatted(mediaType, mediaId));
+
+        Trigger trigger = testWarns.get(0).getTrigger();
+        MediaWarnSummary summary = new MediaWarnSummary(mediaId, mediaType, trigger.getId(), trigger, 2, 7, 5);
+        List<WarnSummaryDTO> expectedSummaries = List.of(new WarnSummaryDTO(new TriggerDTO(2L, "Name", "Description"), 2, 3.5, 5));
+
+        when(service.getWarnSummaries(any(), any()))
+                .thenReturn(completedFuture(List.of(summary)));
+
+        MvcResult result;
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(view().name("fragments/warns :: warnSummary"))
+                .andExpect(model().attribute("summaries", expectedSummaries));
+
+        verify(service).getWarnSummaries(mediaId, mediaType);
+    }
+
+    @Test
+    void getWarnSummaryForInvalidMediaTest() throws Exception {
         // GIVEN
-        long triggerId = testDTO.getTriggerId();
-        String userEmail = "test@email.com";
+        RequestBuilder request = get("/warn/TEST/1234/summary");
+
+        // WHEN
+        mvc.perform(request)
+                .andExpect(status().isBadRequest());
+
+        // THEN
+        verify(service, never()).getWarnSummaries(any(), any());
+    }
 
+    @Test
+    void createWarnTest() throws Exception {
+        // GIVEN
         WarnResponseDTO expectedWarnResponse = testResponseDTOs.get(0);
         Warn expectedWarn = testWarns.get(0);
 
-        Trigger trigger = expectedWarn.getTrigger();
-
         String serializedWarnDTO = UrlEncodedFormSerializer.serialize(testDTO);
 
         String requestUri = testMedia.getMediaUri();
         RequestBuilder request = post(requestUri)
                 .contentType(APPLICATION_FORM_URLENCODED)
                 .content(serializedWarnDTO)
+                .with(user(new UserDetailsImpl(testUser)))
                 .with(csrf());
 
         MvcResult result;
 
-        when(userService.getUserByEmail(anyString(), anyBoolean())).thenReturn(completedFuture(testUser));
-        when(triggerService.getTrigger(any())).thenReturn(completedFuture(trigger));
         when(service.createWarn(any())).thenReturn(completedFuture(expectedWarn));
         // WHEN
         result = mvc.perform(request)
@@ -232,34 +268,23 @@ class WarnControllerTests {
                 .andExpect(model().attribute("warn", expectedWarnResponse))
                 .andExpect(view().name("fragments/warns :: warn"));
 
-        verify(userService).getUserByEmail(userEmail, false);
-        verify(triggerService).getTrigger(triggerId);
-        verify(service).createWarn(expectedWarn);
+        verify(service).createWarn(testCreatedWarn);
     }
 
-    @WithMockUser(username = "test@email.com")
     @Test
     void createDuplicateWarnTest() throws Exception {
         // GIVEN
-        long triggerId = testDTO.getTriggerId();
-        String userEmail = "test@email.com";
-
-        Warn expectedWarn = testWarns.get(0);
-
-        Trigger trigger = expectedWarn.getTrigger();
-
         String serializedWarnDTO = UrlEncodedFormSerializer.serialize(testDTO);
 
         String requestUri = testMedia.getMediaUri();
         RequestBuilder request = post(requestUri)
                 .contentType(APPLICATION_FORM_URLENCODED)
                 .content(serializedWarnDTO)
+                .with(user(new UserDetailsImpl(testUser)))
                 .with(csrf());
 
         MvcResult result;
 
-        when(userService.getUserByEmail(anyString(), anyBoolean())).thenReturn(completedFuture(testUser));
-        when(triggerService.getTrigger(any())).thenReturn(completedFuture(trigger));
         when(service.createWarn(any())).thenReturn(failedFuture(new BadRequestException("Warn already exist")));
         // WHEN
         result = mvc.perform(request)
@@ -277,31 +302,24 @@ class WarnControllerTests {
                 .andExpect(model().attribute("warn", testDTO))
                 .andExpect(view().name("fragments/warns :: warnForm"));
 
-        verify(userService).getUserByEmail(userEmail, false);
-        verify(triggerService).getTrigger(triggerId);
-        verify(service).createWarn(expectedWarn);
+        verify(service).createWarn(testCreatedWarn);
     }
 
-    @WithMockUser(username = "test@email.com")
     @Test
     void createWarnWithUnknownTriggerTest() throws Exception {
         // GIVEN
-        long triggerId = testDTO.getTriggerId();
-        String userEmail = "test@email.com";
-
         String serializedWarnDTO = UrlEncodedFormSerializer.serialize(testDTO);
 
         String requestUri = testMedia.getMediaUri();
         RequestBuilder request = post(requestUri)
                 .contentType(APPLICATION_FORM_URLENCODED)
                 .content(serializedWarnDTO)
+                .with(user(new UserDetailsImpl(testUser)))
                 .with(csrf());
 
         MvcResult result;
 
-        when(userService.getUserByEmail(anyString(), anyBoolean())).thenReturn(completedFuture(testUser));
-        when(triggerService.getTrigger(any())).thenReturn(failedFuture(new EntityNotFoundException("Trigger not found")));
-        when(service.createWarn(any())).thenReturn(completedFuture(null));
+        when(service.createWarn(any())).thenReturn(failedFuture(new EntityNotFoundException("Trigger does not exist")));
         // WHEN
         result = mvc.perform(request)
                 .andExpect(status().isOk())
@@ -318,9 +336,35 @@ class WarnControllerTests {
                 .andExpect(header().string("HX-Reswap", "outerHTML"))
                 .andExpect(view().name("fragments/warns :: warnForm"));
 
-        verify(userService).getUserByEmail(userEmail, false);
-        verify(triggerService).getTrigger(triggerId);
-        verify(service, never()).createWarn(any());
+        verify(service).createWarn(testCreatedWarn);
+    }
+
+    @Test
+    void createWarnWithUnknownUserTest() throws Exception {
+        // GIVEN
+        String serializedWarnDTO = UrlEncodedFormSerializer.serialize(testDTO);
+
+        String requestUri = testMedia.getMediaUri();
+        RequestBuilder request = post(requestUri)
+                .contentType(APPLICATION_FORM_URLENCODED)
+                .content(serializedWarnDTO)
+                .with(user(new UserDetailsImpl(testUser)))
+                .with(csrf());
+
+        MvcResult result;
+
+        when(service.createWarn(any())).thenReturn(failedFuture(new EntityNotFoundException("User does not exist")));
+        // WHEN
+        result = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+
+        verify(service).createWarn(testCreatedWarn);
     }
 
     @Test
@@ -344,13 +388,13 @@ class WarnControllerTests {
                 .andExpect(model().hasNoErrors());
     }
 
-    @WithMockUser(username = "test@email.com")
     @Test
     void deleteWarnTest() throws Exception {
         // GIVEN
         long warnId = 1234L;
-        String currentUser = "test@email.com";
+        Long currentUserId = testUser.getId();
         RequestBuilder request = delete("/warn/" + warnId)
+                .with(user(new UserDetailsImpl(testUser)))
                 .with(csrf());
 
         MvcResult result;
@@ -367,16 +411,16 @@ class WarnControllerTests {
         mvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
 
-        verify(service).deleteWarnIfOwnedByUser(warnId, currentUser);
+        verify(service).deleteWarnIfOwnedByUser(warnId, currentUserId);
     }
 
-    @WithMockUser(username = "test@email.com")
     @Test
     void deleteUnknownWarnTest() throws Exception {
         // GIVEN
         long warnId = 1234L;
-        String currentUser = "test@email.com";
+        Long currentUserId = testUser.getId();
         RequestBuilder request = delete("/warn/" + warnId)
+                .with(user(new UserDetailsImpl(testUser)))
                 .with(csrf());
 
         MvcResult result;
@@ -393,7 +437,7 @@ class WarnControllerTests {
         mvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound());
 
-        verify(service).deleteWarnIfOwnedByUser(warnId, currentUser);
+        verify(service).deleteWarnIfOwnedByUser(warnId, currentUserId);
     }
 
 }
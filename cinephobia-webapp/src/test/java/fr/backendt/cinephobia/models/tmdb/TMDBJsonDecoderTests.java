@@ -0,0 +1,143 @@
+package fr.backendt.cinephobia.models.tmdb;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TMDBJsonDecoderTests {
+
+    private static final String MOVIE_JSON = """
+            {"adult":false,"backdrop_path":"/backdrop.jpg","belongs_to_collection":null,"budget":1000,
+            "genres":[{"id":18,"name":"Drama"}],"id":507110,"original_title":"Original Java",
+            "overview":"An artist realizes the consequences of her artistic obsession.","popularity":1.4,
+            "poster_path":"/9VrwPnieWbU2eH1gRNl2CBqr8eL.jpg","production_companies":[{"id":1,"name":"Company","logo_path":null}],
+            "release_date":"2017-01-01","title":"Java","video":false,"vote_average":7.5}""";
+    private static final String SERIES_JSON = """
+            {"id":134916,"name":"Java Development","original_name":"Java Dev","overview":"For anyone that wanna learn java",
+            "poster_path":null,"seasons":[{"id":1,"episodes":[{"id":2,"name":"Episode"}]}]}""";
+    private static final String SEARCH_JSON = """
+            {"page":2,"results":[%s,%s],"total_pages":5,"total_results":90}""".formatted(MOVIE_JSON, MOVIE_JSON);
+
+    private TMDBJsonDecoder decoder;
+
+    @BeforeEach
+    void initTests() {
+        decoder = new TMDBJsonDecoder();
+    }
+
+    private InputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decodeMovieTest() throws IOException {
+        // GIVEN
+        Media expectedMedia = new Media(507110L, MediaType.MOVIE, "Java", "An artist realizes the consequences of her artistic obsession.", "/9VrwPnieWbU2eH1gRNl2CBqr8eL.jpg");
+        Media result;
+
+        // WHEN
+        result = decoder.decodeMedia(toStream(MOVIE_JSON), MediaType.MOVIE);
+
+        // THEN
+        assertThat(result).isEqualTo(expectedMedia);
+    }
+
+    @Test
+    void decodeSeriesTest() throws IOException {
+        // GIVEN
+        Media expectedMedia = new Media(134916L, MediaType.TV, "Java Development", "For anyone that wanna learn java", null);
+        Media result;
+
+        // WHEN
+        result = decoder.decodeMedia(toStream(SERIES_JSON), MediaType.TV);
+
+        // THEN
+        assertThat(result).isEqualTo(expectedMedia);
+    }
+
+    @Test
+    void decodeLikeJacksonTest() throws IOException {
+        // GIVEN
+        Media expectedMedia = Jackson2ObjectMapperBuilder.json().build().readValue(MOVIE_JSON, Media.class); // Default WebClient codec
+        expectedMedia.setType(MediaType.MOVIE);
+        Media result;
+
+        // WHEN
+        result = decoder.decodeMedia(toStream(MOVIE_JSON), MediaType.MOVIE);
+
+        // THEN
+        assertThat(result).isEqualTo(expectedMedia);
+    }
+
+    @Test
+    void decodeSearchResultsTest() throws IOException {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = decoder.decodeSearchResults(toStream(SEARCH_JSON), MediaType.MOVIE);
+
+        // THEN
+        assertThat(result.getCurrentPage()).isEqualTo(2);
+        assertThat(result.getTotalPages()).isEqualTo(5);
+        assertThat(result.getTotalResults()).isEqualTo(90);
+        assertThat(result.getResults())
+                .hasSize(2)
+                .allSatisfy(media -> {
+                    assertThat(media.getType()).isEqualTo(MediaType.MOVIE);
+                    assertThat(media.getTitle()).isEqualTo("Java");
+                });
+    }
+
+    @Test
+    void decodeEmptySearchResultsTest() throws IOException {
+        // GIVEN
+        String json = "{\"page\":1,\"results\":[],\"total_pages\":0,\"total_results\":0}";
+        SearchResults result;
+
+        // WHEN
+        result = decoder.decodeSearchResults(toStream(json), MediaType.TV);
+
+        // THEN
+        assertThat(result.getResults()).isEmpty();
+        assertThat(result.getTotalResults()).isZero();
+    }
+
+    @Test
+    void decodeDataBufferTest() {
+        // GIVEN
+        DataBuffer json = DefaultDataBufferFactory.sharedInstance.wrap(MOVIE_JSON.getBytes(StandardCharsets.UTF_8));
+        Media result;
+
+        // WHEN
+        result = decoder.decodeMedia(json, MediaType.MOVIE);
+
+        // THEN
+        assertThat(result.getId()).isEqualTo(507110L);
+        assertThat(result.getType()).isEqualTo(MediaType.MOVIE);
+    }
+
+    @Test
+    void decodeInvalidJsonTest() {
+        // GIVEN
+        String json = "[]";
+
+        // WHEN
+        // THEN
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> decoder.decodeMedia(toStream(json), MediaType.MOVIE));
+    }
+
+}
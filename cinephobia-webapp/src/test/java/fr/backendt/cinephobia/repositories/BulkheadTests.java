@@ -0,0 +1,59 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.exceptions.CallNotPermittedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class BulkheadTests {
+
+    private Bulkhead bulkhead;
+
+    private Sinks.One<String> response;
+
+    @BeforeEach
+    void initTests() {
+        bulkhead = new Bulkhead("test", 1);
+        response = Sinks.one();
+    }
+
+    @Test
+    void rejectCallsWhenFullTest() {
+        // GIVEN
+        CompletableFuture<String> firstResult;
+
+        // WHEN
+        firstResult = bulkhead.protect(response.asMono()).toFuture();
+
+        // THEN
+        assertThat(bulkhead.getAvailableCallCount()).isZero();
+        assertThatExceptionOfType(CallNotPermittedException.class)
+                .isThrownBy(() -> bulkhead.protect(Mono.just("second")).block());
+        assertThat(bulkhead.getRejectedCallCount()).isEqualTo(1);
+        assertThat(firstResult).isNotDone();
+    }
+
+    @Test
+    void releasePermitAfterCallTest() {
+        // GIVEN
+        CompletableFuture<String> firstResult;
+        String secondResult;
+
+        // WHEN
+        firstResult = bulkhead.protect(response.asMono()).toFuture();
+        response.tryEmitValue("first");
+        secondResult = bulkhead.protect(Mono.just("second")).block();
+
+        // THEN
+        assertThat(firstResult.join()).isEqualTo("first");
+        assertThat(secondResult).isEqualTo("second");
+        assertThat(bulkhead.getAvailableCallCount()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,130 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.exceptions.CallNotPermittedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class CircuitBreakerTests {
+
+    private CircuitBreaker circuitBreaker;
+
+    private AtomicInteger subscriptions;
+    private Mono<String> failingCall;
+    private Mono<String> successfulCall;
+
+    @BeforeEach
+    void initTests() {
+        circuitBreaker = new CircuitBreaker("test", 4, 0.5, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+        subscriptions = new AtomicInteger();
+        failingCall = Mono.<String>error(new IllegalStateException("Failure"))
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+        successfulCall = Mono.just("result")
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet());
+    }
+
+    private void callAndIgnoreErrors(CircuitBreaker breaker, Mono<String> call) {
+        breaker.protect(call)
+                .onErrorResume(error -> Mono.empty())
+                .block();
+    }
+
+    @Test
+    void staysClosedUnderThresholdTest() {
+        // GIVEN
+        String result;
+
+        // WHEN
+        callAndIgnoreErrors(circuitBreaker, successfulCall);
+        callAndIgnoreErrors(circuitBreaker, successfulCall);
+        callAndIgnoreErrors(circuitBreaker, successfulCall);
+        callAndIgnoreErrors(circuitBreaker, failingCall);
+        result = circuitBreaker.protect(successfulCall).block();
+
+        // THEN
+        assertThat(result).isEqualTo("result");
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensOnFailuresTest() {
+        // GIVEN
+        int expectedSubscriptions = 2;
+
+        // WHEN
+        callAndIgnoreErrors(circuitBreaker, failingCall);
+        callAndIgnoreErrors(circuitBreaker, failingCall);
+
+        // THEN
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatExceptionOfType(CallNotPermittedException.class)
+                .isThrownBy(() -> circuitBreaker.protect(successfulCall).block());
+        assertThat(subscriptions).hasValue(expectedSubscriptions);
+        assertThat(circuitBreaker.getRejectedCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    void opensOnSlowCallsTest() {
+        // GIVEN
+        CircuitBreaker slowCircuitBreaker = new CircuitBreaker("test", 2, 0.5, Duration.ZERO, Duration.ofMinutes(1));
+
+        // WHEN
+        callAndIgnoreErrors(slowCircuitBreaker, successfulCall);
+
+        // THEN
+        assertThat(slowCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCallTest() {
+        // GIVEN
+        CircuitBreaker retryingCircuitBreaker = new CircuitBreaker("test", 2, 0.5, Duration.ofSeconds(5), Duration.ZERO);
+        String result;
+
+        // WHEN
+        callAndIgnoreErrors(retryingCircuitBreaker, failingCall);
+        result = retryingCircuitBreaker.protect(successfulCall).block();
+
+        // THEN
+        assertThat(result).isEqualTo("result");
+        assertThat(retryingCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAgainAfterFailedTrialCallTest() {
+        // GIVEN
+        CircuitBreaker retryingCircuitBreaker = new CircuitBreaker("test", 2, 0.5, Duration.ofSeconds(5), Duration.ZERO);
+
+        // WHEN
+        callAndIgnoreErrors(retryingCircuitBreaker, failingCall);
+        callAndIgnoreErrors(retryingCircuitBreaker, failingCall);
+
+        // THEN
+        assertThat(retryingCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void ignoresRejectedCallsTest() {
+        // GIVEN
+        Bulkhead fullBulkhead = new Bulkhead("test", 0);
+
+        // WHEN
+        callAndIgnoreErrors(circuitBreaker, fullBulkhead.protect(successfulCall));
+        callAndIgnoreErrors(circuitBreaker, fullBulkhead.protect(successfulCall));
+        callAndIgnoreErrors(circuitBreaker, fullBulkhead.protect(successfulCall));
+
+        // THEN
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(fullBulkhead.getRejectedCallCount()).isEqualTo(3);
+        assertThat(subscriptions).hasValue(0);
+    }
+
+}
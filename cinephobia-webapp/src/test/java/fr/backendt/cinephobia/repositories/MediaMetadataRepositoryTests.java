@@ -0,0 +1,121 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.MediaType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MediaMetadataRepositoryTests {
+
+    @Autowired
+    private MediaMetadataRepository repository;
+
+    @Test
+    void saveMediaTest() {
+        // GIVEN
+        Media media = new Media(1234L, MediaType.TV, "1234 Series", "The 1234 series", "/1234.jpg");
+        media.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        Optional<Media> result;
+
+        // WHEN
+        repository.save(media);
+        result = repository.findById(new MediaId(1234L, MediaType.TV));
+
+        // THEN
+        assertThat(result).isNotEmpty().contains(media);
+        assertThat(result.get()).hasNoNullFieldsOrProperties();
+    }
+
+    @Test
+    void getMediaByIdTest() {
+        // GIVEN
+        MediaId mediaId = new MediaId(1L, MediaType.MOVIE);
+        Optional<Media> result;
+
+        // WHEN
+        result = repository.findById(mediaId);
+
+        // THEN
+        assertThat(result).isNotEmpty();
+        assertThat(result.get()).hasNoNullFieldsOrProperties();
+    }
+
+    @Test
+    void getMediaByUnknownTypeTest() {
+        // GIVEN
+        MediaId mediaId = new MediaId(1L, MediaType.TV);
+        Optional<Media> result;
+
+        // WHEN
+        result = repository.findById(mediaId);
+
+        // THEN
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void getStaleMediasTest() {
+        // GIVEN
+        List<Media> results;
+
+        // WHEN
+        results = repository.findAllUpdatedBefore(Instant.now(), Instant.EPOCH, 0L, "", 5);
+
+        // THEN
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void getStaleMediasAfterLastRefreshTest() {
+        // GIVEN
+        Instant lastUpdatedAt = Instant.parse("2023-06-01T00:00:00Z");
+        List<Media> results;
+
+        // WHEN
+        results = repository.findAllUpdatedBefore(Instant.now(), lastUpdatedAt, 0L, "", 5);
+
+        // THEN
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    void getStaleMediasUpdatedInSameSecondTest() {
+        // GIVEN
+        Instant updatedAt = Instant.parse("2022-01-01T00:00:00Z"); // Before the test media
+        Media movie = new Media(5L, MediaType.MOVIE, "Five", "A movie about unit tests", null);
+        Media series = new Media(5L, MediaType.TV, "Five", "A series about unit tests", null);
+        Media otherMovie = new Media(6L, MediaType.MOVIE, "Six", "Another movie about unit tests", null);
+        movie.setUpdatedAt(updatedAt);
+        series.setUpdatedAt(updatedAt);
+        otherMovie.setUpdatedAt(updatedAt);
+        List<Media> firstBatch;
+        List<Media> secondBatch;
+        List<Media> thirdBatch;
+
+        // WHEN
+        repository.saveAllAndFlush(List.of(movie, series, otherMovie));
+        firstBatch = repository.findAllUpdatedBefore(Instant.now(), Instant.EPOCH, 0L, "", 1);
+        secondBatch = repository.findAllUpdatedBefore(Instant.now(), updatedAt, 5L, MediaType.MOVIE.name(), 1);
+        thirdBatch = repository.findAllUpdatedBefore(Instant.now(), updatedAt, 5L, MediaType.TV.name(), 1);
+
+        // THEN
+        assertThat(firstBatch).extracting(Media::getId, Media::getType).containsExactly(tuple(5L, MediaType.MOVIE));
+        assertThat(secondBatch).extracting(Media::getId, Media::getType).containsExactly(tuple(5L, MediaType.TV));
+        assertThat(thirdBatch).extracting(Media::getId, Media::getType).containsExactly(tuple(6L, MediaType.MOVIE));
+    }
+
+}
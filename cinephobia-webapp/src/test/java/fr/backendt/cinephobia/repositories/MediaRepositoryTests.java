@@ -1,26 +1,79 @@
 package fr.backendt.cinephobia.repositories;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import fr.backendt.cinephobia.configurations.TheMovieDBConfig;
+import fr.backendt.cinephobia.exceptions.MediaUnavailableException;
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.tmdb.SearchResults;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class MediaRepositoryTests {
 
     private MediaRepository repository;
+    private MediaMetadataRepository metadataRepository;
+    private CircuitBreaker circuitBreaker;
+    private RequestCoalescer<String, SearchResults> searchCoalescer;
+    private MediaSearchIndex searchIndex;
 
     @BeforeEach
     void initTests() {
         String token = System.getenv("TMDB_JWT");
         WebClient tmdbAPI = new TheMovieDBConfig().tmdbAPI();
-        repository = new MediaRepository(token, tmdbAPI);
+        metadataRepository = mock(MediaMetadataRepository.class);
+        circuitBreaker = new CircuitBreaker("tmdb", 4, 0.5, Duration.ofSeconds(5), Duration.ofMinutes(1));
+        searchCoalescer = new RequestCoalescer<>("search");
+        searchIndex = new MediaSearchIndex(metadataRepository, 1000);
+        repository = new MediaRepository(token, tmdbAPI, Caffeine.newBuilder().build(), Caffeine.newBuilder().build(), Caffeine.newBuilder().build(),
+                new RequestCoalescer<>("media"), searchCoalescer,
+                circuitBreaker, new Bulkhead("tmdb", 8),
+                metadataRepository, searchIndex, Duration.ofDays(7), Duration.ofDays(1), 150, 2);
+    }
+
+    @Test
+    void validateTokenTest() {
+        // GIVEN
+        MediaRepository.TokenStatus result;
+
+        // WHEN
+        result = repository.validateToken().block();
+
+        // THEN
+        assertThat(result).isEqualTo(MediaRepository.TokenStatus.VALID);
+        assertThat(repository.getTokenStatus()).isEqualTo(MediaRepository.TokenStatus.VALID);
+    }
+
+    @Test
+    void validateInvalidTokenTest() {
+        // GIVEN
+        MediaRepository invalidRepository = new MediaRepository("invalid", new TheMovieDBConfig().tmdbAPI(),
+                Caffeine.newBuilder().build(), Caffeine.newBuilder().build(), Caffeine.newBuilder().build(),
+                new RequestCoalescer<>("media"), new RequestCoalescer<>("search"),
+                circuitBreaker, new Bulkhead("tmdb", 8),
+                metadataRepository, new MediaSearchIndex(metadataRepository, 1000), Duration.ofDays(7), Duration.ofDays(1), 150, 2);
+        MediaRepository.TokenStatus result;
+
+        // WHEN
+        result = invalidRepository.validateToken().block();
+
+        // THEN
+        assertThat(result).isEqualTo(MediaRepository.TokenStatus.INVALID);
+        assertThat(invalidRepository.getTokenStatus()).isEqualTo(MediaRepository.TokenStatus.INVALID);
     }
 
     @Test
@@ -32,12 +85,154 @@ class MediaRepositoryTests {
         Optional<Media> result;
 
         // WHEN
-        result = repository.getMovie(mediaId);
+        result = repository.getMovie(mediaId).blockOptional();
+
+        // THEN
+        assertThat(result)
+                .isNotEmpty()
+                .contains(expectedMedia);
+    }
+
+    @Test
+    void getCachedMovieTest() {
+        // GIVEN
+        long mediaId = 507110;
+        Media firstResult;
+        Media result;
+
+        // WHEN
+        firstResult = repository.getMovie(mediaId).block();
+        result = repository.getMovie(mediaId).block();
+
+        // THEN
+        assertThat(result).isSameAs(firstResult);
+    }
+
+    @Test
+    void getStoredMovieTest() {
+        // GIVEN
+        long mediaId = 507110;
+        Media storedMedia = new Media(mediaId, MediaType.MOVIE, "Stored title", "Stored description", null);
+        storedMedia.setUpdatedAt(Instant.now());
+        Optional<Media> result;
+
+        when(metadataRepository.findById(any())).thenReturn(Optional.of(storedMedia));
+
+        // WHEN
+        result = repository.getMovie(mediaId).blockOptional();
+
+        // THEN
+        verify(metadataRepository).findById(new MediaId(mediaId, MediaType.MOVIE));
+        verify(metadataRepository, never()).save(any());
+        assertThat(result)
+                .isNotEmpty()
+                .contains(storedMedia);
+    }
+
+    @Test
+    void getExpiredStoredMovieTest() {
+        // GIVEN
+        long mediaId = 507110;
+        Media storedMedia = new Media(mediaId, MediaType.MOVIE, "Stored title", "Stored description", null);
+        storedMedia.setUpdatedAt(Instant.now().minus(Duration.ofDays(30)));
+
+        Media expectedMedia = new Media(mediaId, MediaType.MOVIE, "Java", "An artist realizes the consequences of her artistic obsession.", "/9VrwPnieWbU2eH1gRNl2CBqr8eL.jpg");
+        Optional<Media> result;
+
+        when(metadataRepository.findById(any())).thenReturn(Optional.of(storedMedia));
+
+        // WHEN
+        result = repository.getMovie(mediaId).blockOptional();
 
         // THEN
+        verify(metadataRepository).save(any());
         assertThat(result)
                 .isNotEmpty()
                 .contains(expectedMedia);
+        assertThat(result.get().getUpdatedAt()).isAfter(storedMedia.getUpdatedAt());
+    }
+
+    @Test
+    void getRemovedExpiredStoredMovieTest() {
+        // GIVEN
+        long mediaId = 0;
+        Media storedMedia = new Media(mediaId, MediaType.MOVIE, "Stored title", "Stored description", null);
+        storedMedia.setUpdatedAt(Instant.now().minus(Duration.ofDays(30)));
+        Optional<Media> result;
+
+        when(metadataRepository.findById(any())).thenReturn(Optional.of(storedMedia));
+
+        // WHEN
+        result = repository.getMovie(mediaId).blockOptional();
+
+        // THEN
+        verify(metadataRepository).deleteById(new MediaId(mediaId, MediaType.MOVIE));
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void getExpiredStoredMovieWhenCircuitOpenTest() {
+        // GIVEN
+        long mediaId = 507110;
+        Media storedMedia = new Media(mediaId, MediaType.MOVIE, "Stored title", "Stored description", null);
+        storedMedia.setUpdatedAt(Instant.now().minus(Duration.ofDays(30)));
+        Optional<Media> result;
+
+        when(metadataRepository.findById(any())).thenReturn(Optional.of(storedMedia));
+        for(int i=0; i < 4; i++) {
+            circuitBreaker.protect(Mono.error(new IllegalStateException("TMDB is down")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+        // WHEN
+        result = repository.getMovie(mediaId).blockOptional();
+
+        // THEN
+        verify(metadataRepository, never()).deleteById(any());
+        assertThat(result).contains(storedMedia);
+    }
+
+    @Test
+    void getUnstoredMovieWhenCircuitOpenTest() {
+        // GIVEN
+        long mediaId = 507110;
+
+        when(metadataRepository.findById(any())).thenReturn(Optional.empty());
+        for(int i=0; i < 4; i++) {
+            circuitBreaker.protect(Mono.error(new IllegalStateException("TMDB is down")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+        // WHEN
+        // THEN
+        assertThatExceptionOfType(MediaUnavailableException.class)
+                .isThrownBy(() -> repository.getMovie(mediaId).block());
+    }
+
+    @Test
+    void refreshStoredMediasCappedTest() {
+        // GIVEN
+        List<Media> staleMedias = LongStream.rangeClosed(1, 100)
+                .mapToObj(mediaId -> {
+                    Media media = new Media(mediaId, MediaType.MOVIE, "Stored title", "Stored description", null);
+                    media.setUpdatedAt(Instant.now().minus(Duration.ofDays(30)));
+                    return media;
+                })
+                .toList();
+
+        when(metadataRepository.findAllUpdatedBefore(any(), any(), any(), any(), anyInt())).thenReturn(staleMedias);
+        for(int i=0; i < 4; i++) { // Refreshes fail fast instead of calling TMDB
+            circuitBreaker.protect(Mono.error(new IllegalStateException("TMDB is down")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+        // WHEN
+        repository.refreshStoredMedias();
+
+        // THEN
+        verify(metadataRepository).findAllUpdatedBefore(any(), any(), any(), any(), eq(100));
+        verify(metadataRepository).findAllUpdatedBefore(any(), any(), any(), any(), eq(50));
+        verify(metadataRepository, times(2)).findAllUpdatedBefore(any(), any(), any(), any(), anyInt());
     }
 
     @Test
@@ -46,7 +241,7 @@ class MediaRepositoryTests {
         long mediaId = 0;
         Optional<Media> result;
         // WHEN
-        result = repository.getMovie(mediaId);
+        result = repository.getMovie(mediaId).blockOptional();
 
         // THEN
         assertThat(result).isEmpty();
@@ -61,7 +256,7 @@ class MediaRepositoryTests {
         Optional<Media> result;
 
         // WHEN
-        result = repository.getSeries(mediaId);
+        result = repository.getSeries(mediaId).blockOptional();
 
         // THEN
         assertThat(result)
@@ -75,7 +270,7 @@ class MediaRepositoryTests {
         long mediaId = 0;
         Optional<Media> result;
         // WHEN
-        result = repository.getSeries(mediaId);
+        result = repository.getSeries(mediaId).blockOptional();
 
         // THEN
         assertThat(result).isEmpty();
@@ -90,15 +285,65 @@ class MediaRepositoryTests {
         int expectedResultAmount = 105;
         SearchResults result;
         // WHEN
-        result = repository.searchMedias(search, page);
+        result = repository.searchMedias(search, page).block();
 
         // THEN
         assertThat(result.getCurrentPage()).isEqualTo(page);
+        assertThat(result.isPartial()).isFalse();
         assertThat(result.getTotalResults()).isGreaterThanOrEqualTo(expectedResultAmount); // Should be equal, but adding a movie would fail the test
-        assertThat(result.getResults().get(0)).hasNoNullFieldsOrPropertiesExcept("posterPath");
+        assertThat(result.getResults().get(0)).hasNoNullFieldsOrPropertiesExcept("posterPath", "updatedAt");
         assertThat(result.getResults()).doesNotContainNull();
     }
 
+    @Test
+    void searchKnownPageTest() {
+        // GIVEN
+        int page = 1;
+        SearchResults firstResult;
+        SearchResults result;
+
+        // WHEN
+        firstResult = repository.searchMedias("java", page).block();
+        result = repository.searchMedias("  JAVA ", page).block();
+
+        // THEN
+        assertThat(searchCoalescer.getRequestCount()).isEqualTo(2); // One request for movies, one for series
+        assertThat(result.getResults()).isEqualTo(firstResult.getResults());
+    }
+
+    @Test
+    void searchIndexesResultsTest() {
+        // GIVEN
+        SearchResults searchResult;
+        SearchResults result;
+
+        // WHEN
+        searchResult = repository.searchMedias("java", 1).block();
+        result = searchIndex.search("java", 1);
+
+        // THEN
+        assertThat(searchIndex.getMediaCount()).isEqualTo(searchResult.getResults().size());
+        assertThat(result.getResults()).isNotEmpty();
+    }
+
+    @Test
+    void searchPastLastPageTest() {
+        // GIVEN
+        SearchResults firstResult;
+        SearchResults result;
+        long requestCount;
+
+        // WHEN
+        firstResult = repository.searchMedias("java", 1).block();
+        requestCount = searchCoalescer.getRequestCount();
+        result = repository.searchMedias("java", firstResult.getTotalPages() + 1).block();
+
+        // THEN
+        assertThat(searchCoalescer.getRequestCount()).isEqualTo(requestCount);
+        assertThat(result.getResults()).isEmpty();
+        assertThat(result.getTotalResults()).isEqualTo(firstResult.getTotalResults());
+    }
+
     @Test
     void getPopularMoviesTest() {
         // GIVEN
@@ -106,13 +351,75 @@ class MediaRepositoryTests {
         SearchResults result;
         int minResultSizeExpected = 15;
         // WHEN
-        result = repository.getPopularMovies(page);
+        result = repository.getPopularMovies(page).block();
 
         // THEN
         assertThat(result).hasNoNullFieldsOrProperties();
         assertThat(result.getCurrentPage()).isEqualTo(page);
         assertThat(result.getResults()).hasSizeGreaterThan(minResultSizeExpected);
-        assertThat(result.getResults().get(0)).hasNoNullFieldsOrPropertiesExcept("posterPath");
+        assertThat(result.getResults().get(0)).hasNoNullFieldsOrPropertiesExcept("posterPath", "updatedAt");
+    }
+
+    @Test
+    void getPopularMoviesFromSnapshotTest() {
+        // GIVEN
+        int page = 2;
+        SearchResults firstResult;
+        SearchResults result;
+
+        // WHEN
+        repository.refreshPopularMovies();
+        firstResult = repository.getPopularMovies(page).block();
+        result = repository.getPopularMovies(page).block();
+
+        // THEN
+        assertThat(firstResult).isNotNull();
+        assertThat(firstResult.getCurrentPage()).isEqualTo(page);
+        assertThat(result).isSameAs(firstResult);
+    }
+
+    @Test
+    void getPopularMoviesWhenCircuitOpenTest() {
+        // GIVEN
+        int page = 1;
+        SearchResults firstResult;
+        SearchResults result;
+
+        // WHEN
+        firstResult = repository.getPopularMovies(page).block();
+        for(int i=0; i < 4; i++) {
+            circuitBreaker.protect(Mono.error(new IllegalStateException("TMDB is down")))
+                    .onErrorResume(error -> Mono.empty())
+                    .block();
+        }
+        result = repository.getPopularMovies(page).block();
+
+        // THEN
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.getRejectedCallCount()).isEqualTo(1);
+        assertThat(result).isSameAs(firstResult);
+    }
+
+    @Test
+    void fullBulkheadKeepsCircuitClosedTest() {
+        // GIVEN
+        Bulkhead fullBulkhead = new Bulkhead("tmdb", 0); // Every call finds it saturated
+        MediaRepository saturatedRepository = new MediaRepository(System.getenv("TMDB_JWT"), new TheMovieDBConfig().tmdbAPI(),
+                Caffeine.newBuilder().build(), Caffeine.newBuilder().build(), Caffeine.newBuilder().build(),
+                new RequestCoalescer<>("media"), new RequestCoalescer<>("search"),
+                circuitBreaker, fullBulkhead,
+                metadataRepository, new MediaSearchIndex(metadataRepository, 1000), Duration.ofDays(7), Duration.ofDays(1), 150, 2);
+
+        // WHEN
+        for(long mediaId = 1; mediaId <= 4; mediaId++) {
+            saturatedRepository.getMovie(mediaId)
+                    .onErrorResume(MediaUnavailableException.class, error -> Mono.empty())
+                    .block();
+        }
+
+        // THEN
+        assertThat(fullBulkhead.getRejectedCallCount()).isEqualTo(4);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
     }
 
 }
@@ -0,0 +1,273 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MediaSearchIndexTests {
+
+    private MediaSearchIndex searchIndex;
+    private MediaMetadataRepository metadataRepository;
+
+    private Media alien;
+    private Media aliens;
+    private Media amelie;
+
+    @BeforeEach
+    void initTests() {
+        metadataRepository = mock(MediaMetadataRepository.class);
+        searchIndex = new MediaSearchIndex(metadataRepository, 1000);
+
+        alien = new Media(348L, MediaType.MOVIE, "Alien", "During its return to the earth, commercial spaceship Nostromo intercepts a distress signal.", null);
+        aliens = new Media(679L, MediaType.MOVIE, "Aliens", "Ripley wakes up in an orbiting space station.", null);
+        amelie = new Media(194L, MediaType.MOVIE, "Le Fabuleux Destin d'Amélie Poulain", "A shy waitress decides to change the lives of those around her.", null);
+        searchIndex.index(List.of(alien, aliens, amelie));
+    }
+
+    @Test
+    void searchExactTitleTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("Alien", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(alien, aliens);
+        assertThat(result.getTotalResults()).isEqualTo(2);
+        assertThat(result.getTotalPages()).isEqualTo(1);
+    }
+
+    @Test
+    void removeMediaTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        searchIndex.remove(new MediaId(alien.getId(), alien.getType()));
+        result = searchIndex.search("Alien", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(aliens);
+    }
+
+    @Test
+    void evictLeastRecentlyIndexedMediaTest() {
+        // GIVEN
+        MediaSearchIndex boundedIndex = new MediaSearchIndex(metadataRepository, 2);
+        SearchResults result;
+
+        // WHEN
+        boundedIndex.index(List.of(alien, aliens));
+        boundedIndex.index(alien); // Seen again
+        boundedIndex.index(amelie);
+        result = boundedIndex.search("Alien", 1);
+
+        // THEN
+        assertThat(boundedIndex.getMediaCount()).isEqualTo(2);
+        assertThat(result.getResults()).containsExactly(alien);
+    }
+
+    @Test
+    void changeVersionOnlyWithMediasTest() {
+        // GIVEN
+        Media renamedAlien = new Media(alien.getId(), alien.getType(), "Alien: Director's Cut", alien.getDescription(), null);
+        long initialVersion = searchIndex.getVersion();
+        long unchangedVersion;
+        long renamedVersion;
+
+        // WHEN
+        searchIndex.index(new Media(alien.getId(), alien.getType(), alien.getTitle(), alien.getDescription(), alien.getPosterPath()));
+        unchangedVersion = searchIndex.getVersion();
+        searchIndex.index(renamedAlien);
+        renamedVersion = searchIndex.getVersion();
+
+        // THEN
+        assertThat(unchangedVersion).isEqualTo(initialVersion);
+        assertThat(renamedVersion).isGreaterThan(initialVersion);
+        assertThat(searchIndex.search("director", 1).getResults()).containsExactly(renamedAlien);
+    }
+
+    @Test
+    void searchPrefixTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("fabul dest", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(amelie);
+    }
+
+    @Test
+    void searchWithoutAccentsTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("AMELIE", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(amelie);
+    }
+
+    @Test
+    void searchWithTyposTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("nostormo", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(alien);
+    }
+
+    @Test
+    void searchWithMissingLetterTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("nostrmo", 1); // One letter shorter than the indexed term
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(alien);
+    }
+
+    @Test
+    void searchWithTyposAfterRemovalTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        searchIndex.remove(new MediaId(alien.getId(), alien.getType()));
+        result = searchIndex.search("nostormo", 1);
+
+        // THEN
+        assertThat(result.getResults()).isEmpty();
+    }
+
+    @Test
+    void searchOverviewTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("space ripley", 1);
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(aliens);
+    }
+
+    @Test
+    void searchRequiresEveryTermTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("alien waitress", 1);
+
+        // THEN
+        assertThat(result.getResults()).isEmpty();
+        assertThat(result.getTotalResults()).isZero();
+    }
+
+    @Test
+    void searchBlankTest() {
+        // GIVEN
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search(" - ", 1);
+
+        // THEN
+        assertThat(result.getResults()).isEmpty();
+    }
+
+    @Test
+    void reindexMediaTest() {
+        // GIVEN
+        Media renamedAlien = new Media(alien);
+        renamedAlien.setTitle("Alien: Director's Cut");
+        renamedAlien.setDescription("The same spaceship.");
+
+        SearchResults oldOverviewResult;
+        SearchResults newTitleResult;
+
+        // WHEN
+        searchIndex.index(renamedAlien);
+        oldOverviewResult = searchIndex.search("nostromo", 1);
+        newTitleResult = searchIndex.search("director", 1);
+
+        // THEN
+        assertThat(searchIndex.getMediaCount()).isEqualTo(3);
+        assertThat(oldOverviewResult.getResults()).isEmpty();
+        assertThat(newTitleResult.getResults()).containsExactly(renamedAlien);
+    }
+
+    @Test
+    void searchPagesTest() {
+        // GIVEN
+        IntStream.range(0, MediaSearchIndex.PAGE_SIZE + 5)
+                .mapToObj(id -> new Media((long) id, MediaType.TV, "Series " + id, null, null))
+                .forEach(searchIndex::index);
+        SearchResults result;
+
+        // WHEN
+        result = searchIndex.search("series", 2);
+
+        // THEN
+        assertThat(result.getCurrentPage()).isEqualTo(2);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+        assertThat(result.getTotalResults()).isEqualTo(MediaSearchIndex.PAGE_SIZE + 5);
+        assertThat(result.getResults()).hasSize(5);
+    }
+
+    @Test
+    void loadStoredMediasTest() {
+        // GIVEN
+        searchIndex = new MediaSearchIndex(metadataRepository, 1000);
+        Pageable firstPage = PageRequest.of(0, 500);
+
+        when(metadataRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(alien, amelie), firstPage, 2));
+        // WHEN
+        searchIndex.loadStoredMedias();
+
+        // THEN
+        assertThat(searchIndex.getMediaCount()).isEqualTo(2);
+        assertThat(searchIndex.search("amelie", 1).getResults()).containsExactly(amelie);
+    }
+
+    @Test
+    void isWithinTyposTest() {
+        // GIVEN
+        boolean swappedLetters;
+        boolean tooManyTypos;
+
+        // WHEN
+        swappedLetters = MediaSearchIndex.isWithinTypos("nostormo", "nostromo", 2);
+        tooManyTypos = MediaSearchIndex.isWithinTypos("alien", "olive", 1);
+
+        // THEN
+        assertThat(swappedLetters).isTrue();
+        assertThat(tooManyTypos).isFalse();
+    }
+
+}
@@ -0,0 +1,184 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.MediaWarnCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MediaSuggestionIndexTests {
+
+    private MediaSuggestionIndex suggestionIndex;
+    private MediaSearchIndex searchIndex;
+    private MediaRepository mediaRepository;
+    private MediaWarnSummaryRepository summaryRepository;
+    private MediaMetadataRepository metadataRepository;
+
+    private Media darkKnight;
+    private Media darkCity;
+    private Media dune;
+    private Media amelie;
+
+    @BeforeEach
+    void initTests() {
+        searchIndex = new MediaSearchIndex(mock(MediaMetadataRepository.class), 1000);
+        mediaRepository = mock(MediaRepository.class);
+        summaryRepository = mock(MediaWarnSummaryRepository.class);
+        metadataRepository = mock(MediaMetadataRepository.class);
+        suggestionIndex = new MediaSuggestionIndex(searchIndex, mediaRepository, summaryRepository, metadataRepository);
+
+        darkKnight = new Media(155L, MediaType.MOVIE, "The Dark Knight", null, null);
+        darkCity = new Media(2666L, MediaType.MOVIE, "Dark City", null, null);
+        dune = new Media(438631L, MediaType.MOVIE, "Dune", null, null);
+        amelie = new Media(194L, MediaType.MOVIE, "Le Fabuleux Destin d'Amélie Poulain", null, null);
+        searchIndex.index(List.of(darkKnight, darkCity, amelie));
+
+        when(mediaRepository.getPopularMoviesSnapshot()).thenReturn(List.of(dune, darkKnight));
+        when(summaryRepository.countAllByMedia()).thenReturn(List.of(new MediaWarnCount(darkCity.getId(), MediaType.MOVIE, 3L)));
+        suggestionIndex.rebuild();
+    }
+
+    @Test
+    void suggestByWordStartTest() {
+        // GIVEN
+        List<Media> result;
+
+        // WHEN
+        result = suggestionIndex.suggest("dark kn");
+
+        // THEN
+        assertThat(result).containsExactly(darkKnight);
+    }
+
+    @Test
+    void suggestRanksWarnsThenPopularityTest() {
+        // GIVEN
+        List<Media> result;
+
+        // WHEN
+        result = suggestionIndex.suggest("D");
+
+        // THEN
+        assertThat(result).containsExactly(darkCity, dune, darkKnight, amelie);
+    }
+
+    @Test
+    void suggestWithoutAccentsTest() {
+        // GIVEN
+        List<Media> result;
+
+        // WHEN
+        result = suggestionIndex.suggest("ame");
+
+        // THEN
+        assertThat(result).containsExactly(amelie);
+    }
+
+    @Test
+    void suggestUnknownTitleTest() {
+        // GIVEN
+        List<Media> blankResult;
+        List<Media> unknownResult;
+
+        // WHEN
+        blankResult = suggestionIndex.suggest("  ");
+        unknownResult = suggestionIndex.suggest("zzz");
+
+        // THEN
+        assertThat(blankResult).isEmpty();
+        assertThat(unknownResult).isEmpty();
+    }
+
+    @Test
+    void suggestCommonPrefixTest() {
+        // GIVEN
+        IntStream.range(0, 1000)
+                .mapToObj(id -> new Media((long) id, MediaType.TV, "Series " + id, null, null))
+                .forEach(searchIndex::index);
+        suggestionIndex.rebuild();
+
+        List<Media> result;
+
+        // WHEN
+        result = suggestionIndex.suggest("se");
+
+        // THEN
+        assertThat(result)
+                .hasSize(MediaSuggestionIndex.MAX_SUGGESTIONS)
+                .extracting(Media::getTitle)
+                .startsWith("Series 0", "Series 1", "Series 2");
+    }
+
+    @Test
+    void suggestLongCommonPrefixTest() {
+        // GIVEN
+        List<Media> movies = IntStream.range(0, 1000)
+                .mapToObj(id -> new Media((long) id, MediaType.MOVIE, "The Movie " + id, null, null))
+                .toList();
+        Media popularMovie = movies.get(999); // Its key sorts after every other one
+        searchIndex.index(movies);
+        when(mediaRepository.getPopularMoviesSnapshot()).thenReturn(List.of(popularMovie));
+        suggestionIndex.rebuild();
+
+        List<Media> result;
+
+        // WHEN
+        result = suggestionIndex.suggest("the mo");
+
+        // THEN
+        assertThat(result)
+                .hasSize(MediaSuggestionIndex.MAX_SUGGESTIONS)
+                .startsWith(popularMovie);
+    }
+
+    @Test
+    void suggestStoredMediaWithWarnsTest() {
+        // GIVEN
+        Media storedMovie = new Media(78L, MediaType.MOVIE, "Blade Runner", null, null); // Out of the search index
+        List<Media> result;
+
+        when(summaryRepository.countAllByMedia()).thenReturn(List.of(new MediaWarnCount(storedMovie.getId(), MediaType.MOVIE, 5L)));
+        when(metadataRepository.findAllById(any())).thenReturn(List.of(storedMovie));
+        suggestionIndex.rebuild();
+        // WHEN
+        result = suggestionIndex.suggest("blade");
+
+        // THEN
+        assertThat(result).containsExactly(storedMovie);
+        verify(metadataRepository).findAllById(List.of(new MediaId(storedMovie.getId(), MediaType.MOVIE)));
+    }
+
+    @Test
+    void rebuildOnlyWhenInputsChangeTest() {
+        // GIVEN
+        Media storedMovie = new Media(78L, MediaType.MOVIE, "Blade Runner", null, null);
+        List<Media> unchangedResult;
+        List<Media> changedResult;
+
+        when(summaryRepository.countAllByMedia()).thenReturn(List.of(new MediaWarnCount(storedMovie.getId(), MediaType.MOVIE, 5L)));
+        when(metadataRepository.findAllById(any())).thenReturn(List.of(storedMovie));
+        suggestionIndex.rebuild();
+        // WHEN
+        searchIndex.index(darkKnight); // Seen again, unchanged
+        suggestionIndex.rebuild();
+        unchangedResult = suggestionIndex.suggest("ali");
+
+        searchIndex.index(new Media(348L, MediaType.MOVIE, "Alien", null, null));
+        suggestionIndex.rebuild();
+        changedResult = suggestionIndex.suggest("ali");
+
+        // THEN
+        verify(metadataRepository, times(2)).findAllById(any()); // Only read while rebuilding
+        assertThat(unchangedResult).isEmpty();
+        assertThat(changedResult).extracting(Media::getTitle).containsExactly("Alien");
+    }
+
+}
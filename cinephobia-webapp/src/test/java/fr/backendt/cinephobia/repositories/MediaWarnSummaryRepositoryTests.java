@@ -0,0 +1,153 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MediaWarnSummaryRepositoryTests {
+
+    @Autowired
+    private MediaWarnSummaryRepository repository;
+
+    @Autowired
+    private WarnRepository warnRepository;
+
+    @Test
+    void getMediaSummariesTest() {
+        // GIVEN
+        long mediaId = 1L;
+        List<MediaWarnSummary> results;
+
+        // WHEN
+        results = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(mediaId, MediaType.MOVIE);
+
+        // THEN
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getTrigger().getName()).isEqualTo("Bugphobia");
+        assertThat(results.get(0).getWarnCount()).isEqualTo(1);
+        assertThat(results.get(0).getMaxExpositionLevel()).isEqualTo(9);
+    }
+
+    @Test
+    void addWarnTest() {
+        // GIVEN
+        Trigger trigger = new Trigger(2L, "Bugphobia", "Fear of software bugs");
+        User user = new User(2L, "Jane Doe", "jane.doe@test.com", "Jane1234", "USER");
+        Warn warn = warnRepository.save(new Warn(trigger, user, 1L, MediaType.MOVIE, 3));
+
+        MediaWarnSummary result;
+
+        // WHEN
+        repository.addWarn(warn.getMediaId(), warn.getMediaType().name(), trigger.getId(), warn.getExpositionLevel());
+        result = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE).get(0);
+
+        // THEN
+        assertThat(result.getWarnCount()).isEqualTo(2);
+        assertThat(result.getExpositionTotal()).isEqualTo(12);
+        assertThat(result.getMaxExpositionLevel()).isEqualTo(9);
+        assertThat(result.getAverageExpositionLevel()).isEqualTo(6);
+    }
+
+    @Test
+    void addWarnByIdTest() {
+        // GIVEN
+        Trigger trigger = new Trigger(2L, "Bugphobia", "Fear of software bugs");
+        User user = new User(2L, "Jane Doe", "jane.doe@test.com", "Jane1234", "USER");
+        Warn warn = warnRepository.save(new Warn(trigger, user, 1L, MediaType.MOVIE, 10));
+
+        MediaWarnSummary result;
+
+        // WHEN
+        repository.addWarnById(warn.getId());
+        result = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE).get(0);
+
+        // THEN
+        assertThat(result.getWarnCount()).isEqualTo(2);
+        assertThat(result.getExpositionTotal()).isEqualTo(19);
+        assertThat(result.getMaxExpositionLevel()).isEqualTo(10);
+    }
+
+    @Test
+    void removeLastWarnTest() {
+        // GIVEN
+        long warnId = 1L;
+        List<MediaWarnSummary> results;
+
+        // WHEN
+        repository.removeWarn(warnId, null);
+        results = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE);
+
+        // THEN
+        assertThat(results).isEmpty();
+    }
+
+    @Test
+    void addWarnToEmptiedSummaryTest() {
+        // GIVEN
+        Trigger trigger = new Trigger(2L, "Bugphobia", "Fear of software bugs");
+        MediaWarnSummary result;
+
+        repository.removeWarn(1L, null);
+        // WHEN
+        repository.addWarn(1L, MediaType.MOVIE.name(), trigger.getId(), 3);
+        result = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE).get(0);
+
+        // THEN
+        assertThat(result.getWarnCount()).isEqualTo(1);
+        assertThat(result.getExpositionTotal()).isEqualTo(3);
+        assertThat(result.getMaxExpositionLevel()).isEqualTo(3);
+    }
+
+    @Test
+    void removeWarnOwnedByOtherUserTest() {
+        // GIVEN
+        long warnId = 1L;
+        long otherUserId = 2L;
+        List<MediaWarnSummary> results;
+
+        // WHEN
+        repository.removeWarn(warnId, otherUserId);
+        results = repository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE);
+
+        // THEN
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getWarnCount()).isEqualTo(1);
+    }
+
+    @Test
+    void countWarnsByMediaTest() {
+        // GIVEN
+        List<MediaWarnCount> results;
+
+        // WHEN
+        results = repository.countAllByMedia();
+
+        // THEN
+        assertThat(results).containsExactly(new MediaWarnCount(1L, MediaType.MOVIE, 1L));
+    }
+
+    @Test
+    void rebuildSummariesTest() {
+        // GIVEN
+        List<MediaWarnSummary> results;
+
+        // WHEN
+        repository.deleteAllSummaries();
+        repository.insertAllSummaries();
+        results = repository.findAll();
+
+        // THEN
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getTriggerId()).isEqualTo(2L);
+        assertThat(results.get(0).getExpositionTotal()).isEqualTo(9);
+    }
+
+}
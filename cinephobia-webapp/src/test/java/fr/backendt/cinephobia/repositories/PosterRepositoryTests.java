@@ -0,0 +1,206 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.PosterSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PosterRepositoryTests {
+
+    private static final String POSTER_CONTENT = "0123456789";
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private AtomicInteger downloads;
+    private WebClient tmdbImageAPI;
+
+    @BeforeEach
+    void initTests() {
+        downloads = new AtomicInteger();
+        tmdbImageAPI = WebClient.builder()
+                .exchangeFunction(request -> {
+                    downloads.incrementAndGet();
+                    HttpStatus status = request.url().getPath().endsWith("unknown.jpg") ? HttpStatus.NOT_FOUND : HttpStatus.OK;
+                    return Mono.just(ClientResponse.create(status)
+                            .body(POSTER_CONTENT)
+                            .build());
+                })
+                .build();
+    }
+
+    private PosterRepository createRepository(DataSize maximumSize) throws IOException {
+        return new PosterRepository(tmdbImageAPI, new RequestCoalescer<>("poster"), cacheDirectory.toString(), maximumSize);
+    }
+
+    @Test
+    void getPosterTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofKilobytes(1));
+        Optional<Path> result;
+
+        // WHEN
+        result = repository.getPoster(PosterSize.W342, "poster.jpg").blockOptional();
+
+        // THEN
+        assertThat(result).contains(cacheDirectory.resolve("w342").resolve("poster.jpg"));
+        assertThat(result.get()).hasContent(POSTER_CONTENT);
+        assertThat(repository.getCurrentSize()).isEqualTo(POSTER_CONTENT.length());
+    }
+
+    @Test
+    void getCachedPosterTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofKilobytes(1));
+        Path firstResult;
+        Path result;
+
+        // WHEN
+        firstResult = repository.getPoster(PosterSize.W342, "poster.jpg").block();
+        result = repository.getPoster(PosterSize.W342, "poster.jpg").block();
+
+        // THEN
+        assertThat(result).isEqualTo(firstResult);
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void getUnknownPosterTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofKilobytes(1));
+        Optional<Path> result;
+
+        // WHEN
+        result = repository.getPoster(PosterSize.W342, "unknown.jpg").blockOptional();
+
+        // THEN
+        assertThat(result).isEmpty();
+        assertThat(repository.getCurrentSize()).isZero();
+        assertThat(cacheDirectory.resolve("w342")).isEmptyDirectory();
+    }
+
+    @Test
+    void getPosterOutsideCacheTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofKilobytes(1));
+        Optional<Path> result;
+
+        // WHEN
+        result = repository.getPoster(PosterSize.W342, "..").blockOptional();
+
+        // THEN
+        assertThat(result).isEmpty();
+        assertThat(downloads).hasValue(0);
+    }
+
+    @Test
+    void evictLeastRecentlyUsedPostersTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofBytes(POSTER_CONTENT.length() * 2L));
+        Path firstPoster = cacheDirectory.resolve("w185").resolve("first.jpg");
+
+        // WHEN
+        repository.getPoster(PosterSize.W185, "first.jpg").block();
+        Files.setLastModifiedTime(firstPoster, FileTime.fromMillis(0)); // Oldest access
+        repository.getPoster(PosterSize.W185, "second.jpg").block();
+        repository.getPoster(PosterSize.W185, "third.jpg").block();
+
+        // THEN
+        assertThat(firstPoster).doesNotExist();
+        assertThat(cacheDirectory.resolve("w185").resolve("third.jpg")).exists();
+        assertThat(repository.getCurrentSize()).isLessThanOrEqualTo(POSTER_CONTENT.length() * 2L);
+    }
+
+    @Test
+    void keepPostersAfterRestartTest() throws IOException {
+        // GIVEN
+        createRepository(DataSize.ofKilobytes(1)).getPoster(PosterSize.W500, "poster.jpg").block();
+        PosterRepository repository;
+
+        // WHEN
+        repository = createRepository(DataSize.ofKilobytes(1));
+
+        // THEN
+        assertThat(repository.getCurrentSize()).isEqualTo(POSTER_CONTENT.length());
+    }
+
+    @Test
+    void evictBelowMaximumSizeTest() throws IOException {
+        // GIVEN
+        PosterRepository repository = createRepository(DataSize.ofBytes(POSTER_CONTENT.length() * 10L));
+        Path posterDirectory = cacheDirectory.resolve("w185");
+
+        // WHEN
+        for(int poster = 0; poster < 10; poster++) {
+            repository.getPoster(PosterSize.W185, poster + ".jpg").block();
+            Files.setLastModifiedTime(posterDirectory.resolve(poster + ".jpg"), FileTime.fromMillis(poster * 1000L));
+        }
+        repository.getPoster(PosterSize.W185, "last.jpg").block();
+
+        // THEN
+        assertThat(posterDirectory.resolve("0.jpg")).doesNotExist();
+        assertThat(posterDirectory.resolve("1.jpg")).doesNotExist();
+        assertThat(posterDirectory.resolve("2.jpg")).exists();
+        assertThat(repository.getCurrentSize()).isEqualTo(POSTER_CONTENT.length() * 9L);
+    }
+
+    @Test
+    void countReplacedPosterOnceTest() throws IOException {
+        // GIVEN
+        CompletableFuture<Void> downloadsStarted = new CompletableFuture<>();
+        WebClient slowImageAPI = WebClient.builder()
+                .exchangeFunction(request -> {
+                    if(downloads.incrementAndGet() == 2) downloadsStarted.complete(null);
+                    return Mono.fromFuture(downloadsStarted)
+                            .thenReturn(ClientResponse.create(HttpStatus.OK).body(POSTER_CONTENT).build());
+                })
+                .build();
+        RequestCoalescer<String, Path> noCoalescer = new RequestCoalescer<>("poster") { // Both requests missed the poster
+            @Override
+            public Mono<Path> coalesce(String key, Supplier<Mono<Path>> request) {
+                return request.get();
+            }
+        };
+        PosterRepository repository = new PosterRepository(slowImageAPI, noCoalescer, cacheDirectory.toString(), DataSize.ofKilobytes(1));
+
+        // WHEN
+        Mono.zip(repository.getPoster(PosterSize.W342, "poster.jpg"), repository.getPoster(PosterSize.W342, "poster.jpg"))
+                .block();
+
+        // THEN
+        assertThat(downloads).hasValue(2);
+        assertThat(repository.getCurrentSize()).isEqualTo(POSTER_CONTENT.length());
+    }
+
+    @Test
+    void deleteInterruptedDownloadsTest() throws IOException {
+        // GIVEN
+        Path interruptedDownload = Files.createTempFile(cacheDirectory, "download-", ".tmp");
+        Files.writeString(interruptedDownload, POSTER_CONTENT);
+        PosterRepository repository;
+
+        // WHEN
+        repository = createRepository(DataSize.ofKilobytes(1));
+
+        // THEN
+        assertThat(interruptedDownload).doesNotExist();
+        assertThat(repository.getCurrentSize()).isZero();
+    }
+
+}
@@ -0,0 +1,137 @@
+package fr.backendt.cinephobia.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerTests {
+
+    private RequestCoalescer<String, String> coalescer;
+
+    private Sinks.One<String> response;
+    private AtomicInteger subscriptions;
+    private AtomicInteger cancellations;
+    private Supplier<Mono<String>> request;
+
+    @BeforeEach
+    void initTests() {
+        coalescer = new RequestCoalescer<>("test");
+
+        response = Sinks.one();
+        subscriptions = new AtomicInteger();
+        cancellations = new AtomicInteger();
+        request = () -> response.asMono()
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(cancellations::incrementAndGet);
+    }
+
+    @Test
+    void coalesceConcurrentRequestsTest() {
+        // GIVEN
+        String key = "movie/1";
+
+        CompletableFuture<String> firstResult;
+        CompletableFuture<String> secondResult;
+
+        // WHEN
+        firstResult = coalescer.coalesce(key, request).toFuture();
+        secondResult = coalescer.coalesce(key, request).toFuture();
+        response.tryEmitValue("result");
+
+        // THEN
+        assertThat(firstResult.join()).isEqualTo("result");
+        assertThat(secondResult.join()).isEqualTo("result");
+        assertThat(subscriptions).hasValue(1);
+        assertThat(coalescer.getRequestCount()).isEqualTo(2);
+        assertThat(coalescer.getCoalescedRequestCount()).isEqualTo(1);
+        assertThat(coalescer.getInFlightRequestCount()).isZero();
+    }
+
+    @Test
+    void doNotCoalesceDifferentKeysTest() {
+        // GIVEN
+        CompletableFuture<String> firstResult;
+        CompletableFuture<String> secondResult;
+
+        // WHEN
+        firstResult = coalescer.coalesce("movie/1", request).toFuture();
+        secondResult = coalescer.coalesce("movie/2", request).toFuture();
+        response.tryEmitValue("result");
+
+        // THEN
+        assertThat(firstResult.join()).isEqualTo("result");
+        assertThat(secondResult.join()).isEqualTo("result");
+        assertThat(subscriptions).hasValue(2);
+        assertThat(coalescer.getCoalescedRequestCount()).isZero();
+    }
+
+    @Test
+    void sendNewRequestAfterCompletionTest() {
+        // GIVEN
+        String key = "movie/1";
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Mono<Integer>> countingRequest = () -> Mono.fromCallable(calls::incrementAndGet);
+        RequestCoalescer<String, Integer> countingCoalescer = new RequestCoalescer<>("test");
+
+        Integer firstResult;
+        Integer secondResult;
+
+        // WHEN
+        firstResult = countingCoalescer.coalesce(key, countingRequest).block();
+        secondResult = countingCoalescer.coalesce(key, countingRequest).block();
+
+        // THEN
+        assertThat(firstResult).isEqualTo(1);
+        assertThat(secondResult).isEqualTo(2);
+        assertThat(countingCoalescer.getCoalescedRequestCount()).isZero();
+    }
+
+    @Test
+    void keepRequestWhileCallersWaitTest() {
+        // GIVEN
+        String key = "movie/1";
+
+        Disposable firstCaller;
+        CompletableFuture<String> secondResult;
+
+        // WHEN
+        firstCaller = coalescer.coalesce(key, request).subscribe();
+        secondResult = coalescer.coalesce(key, request).toFuture();
+        firstCaller.dispose();
+        response.tryEmitValue("result");
+
+        // THEN
+        assertThat(secondResult.join()).isEqualTo("result");
+        assertThat(cancellations).hasValue(0);
+        assertThat(coalescer.getCancelledRequestCount()).isZero();
+    }
+
+    @Test
+    void cancelRequestWithoutCallersTest() {
+        // GIVEN
+        String key = "movie/1";
+
+        Disposable firstCaller;
+        Disposable secondCaller;
+
+        // WHEN
+        firstCaller = coalescer.coalesce(key, request).subscribe();
+        secondCaller = coalescer.coalesce(key, request).subscribe();
+        firstCaller.dispose();
+        secondCaller.dispose();
+
+        // THEN
+        assertThat(cancellations).hasValue(1);
+        assertThat(coalescer.getCancelledRequestCount()).isEqualTo(1);
+        assertThat(coalescer.getInFlightRequestCount()).isZero();
+    }
+
+}
@@ -0,0 +1,156 @@
+package fr.backendt.cinephobia.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationsTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void initTests() { // Enough warns for a full scan to cost more than an index read
+        List<Object[]> warns = IntStream.rangeClosed(2, 500)
+                .mapToObj(mediaId -> new Object[]{1, 1, mediaId, "MOVIE", 5})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO warn(trigger_id, user_id, media_id, media_type, exposition_level) VALUES (?, ?, ?, ?, ?)", warns);
+        jdbcTemplate.execute("ANALYZE TABLE warn, users");
+    }
+
+    @Test
+    void migrationsAppliedTest() {
+        // GIVEN
+        List<String> versions;
+
+        // WHEN
+        versions = jdbcTemplate.queryForList("SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        // THEN
+        assertThat(versions).containsExactly("1", "2", "3", "4", "5", "6", "7", "8");
+    }
+
+    @Test
+    void redundantUserIndexDroppedTest() {
+        // GIVEN
+        List<String> warnIndexes;
+
+        // WHEN
+        warnIndexes = jdbcTemplate.queryForList("SELECT DISTINCT index_name FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'warn'", String.class);
+
+        // THEN
+        assertThat(warnIndexes)
+                .contains("IDX_Warn_User")
+                .doesNotContain("user_id");
+    }
+
+    @Test
+    void warnForeignKeysNamedTest() {
+        // GIVEN
+        List<String> foreignKeys;
+
+        // WHEN
+        foreignKeys = jdbcTemplate.queryForList("SELECT constraint_name FROM information_schema.referential_constraints WHERE constraint_schema = DATABASE() AND table_name = 'warn'", String.class);
+
+        // THEN
+        assertThat(foreignKeys).containsExactlyInAnyOrder("FK_Warn_Trigger", "FK_Warn_User");
+    }
+
+    @Test
+    void warnsByMediaUseMediaIndexTest() {
+        // GIVEN
+        String query = "SELECT * FROM warn w WHERE w.media_id = 1 AND w.media_type = 'MOVIE' AND w.id > 0 ORDER BY w.id LIMIT 51";
+        String usedIndex;
+
+        // WHEN
+        usedIndex = getUsedIndex(query, "w");
+
+        // THEN
+        assertThat(usedIndex).isEqualTo("IDX_Warn_Media");
+    }
+
+    @Test
+    void warnsByUserUseUserIndexTest() {
+        // GIVEN
+        String query = "SELECT w.* FROM warn w LEFT JOIN users u ON u.id = w.user_id WHERE u.email = 'jane.doe@test.com' AND w.id > 0 ORDER BY w.id LIMIT 51";
+        String usedIndex;
+
+        // WHEN
+        usedIndex = getUsedIndex(query, "w");
+
+        // THEN
+        assertThat(usedIndex).isEqualTo("IDX_Warn_User");
+    }
+
+    @Test
+    void userByEmailIgnoringCaseUsesNormalizedEmailIndexTest() {
+        // GIVEN
+        String query = "SELECT * FROM users u WHERE LOWER(u.email) = LOWER('JOHN.Doe@test.com')";
+        String usedIndex;
+
+        // WHEN
+        usedIndex = getUsedIndex(query, "u");
+
+        // THEN
+        assertThat(usedIndex).isEqualTo("IDX_Users_Email_Normalized");
+    }
+
+    @Test
+    void usersByDisplayNameUseFulltextIndexTest() {
+        // GIVEN
+        String query = "SELECT id FROM users u WHERE MATCH(u.display_name) AGAINST ('\"jane\"' IN BOOLEAN MODE)";
+        String usedIndex;
+
+        // WHEN
+        usedIndex = getUsedIndex(query, "u");
+
+        // THEN
+        assertThat(usedIndex).isEqualTo("IDX_Users_Display_Name");
+    }
+
+    @Test
+    void usersByEmailPrefixUseNormalizedEmailIndexTest() {
+        // GIVEN
+        String query = "SELECT id FROM users u WHERE u.email_normalized LIKE 'jane.d%'";
+        String usedIndex;
+
+        // WHEN
+        usedIndex = getUsedIndex(query, "u");
+
+        // THEN
+        assertThat(usedIndex).isEqualTo("IDX_Users_Email_Normalized");
+    }
+
+    @Test
+    void normalizedEmailIsLowercaseTest() {
+        // GIVEN
+        String email;
+
+        // WHEN
+        jdbcTemplate.update("INSERT INTO users(display_name, email, password, role) VALUES ('Test User', 'Test@User.com', 'HASHED', 'USER')");
+        email = jdbcTemplate.queryForObject("SELECT email_normalized FROM users WHERE email = 'Test@User.com'", String.class);
+
+        // THEN
+        assertThat(email).isEqualTo("test@user.com");
+    }
+
+    private String getUsedIndex(String query, String tableAlias) {
+        return jdbcTemplate.queryForList("EXPLAIN " + query).stream()
+                .filter(row -> tableAlias.equals(row.get("table")))
+                .map(row -> (String) row.get("key"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,98 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCursorTests {
+
+    private SearchCursor cursor;
+
+    private SearchResults firstPage;
+
+    @BeforeEach
+    void initTests() {
+        cursor = new SearchCursor(2);
+
+        Media media = new Media(1L, MediaType.MOVIE, "Movie", "Description", null);
+        firstPage = new SearchResults(1, 3, 50, List.of(media));
+    }
+
+    @Test
+    void getKnownPageTest() {
+        // GIVEN
+        Optional<SearchResults> result;
+
+        // WHEN
+        cursor.addPage(1, firstPage);
+        result = cursor.getPage(1);
+
+        // THEN
+        assertThat(result).containsSame(firstPage);
+    }
+
+    @Test
+    void getUnknownPageTest() {
+        // GIVEN
+        Optional<SearchResults> result;
+
+        // WHEN
+        cursor.addPage(1, firstPage);
+        result = cursor.getPage(2);
+
+        // THEN
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void getPagePastLastPageTest() {
+        // GIVEN
+        Optional<SearchResults> result;
+
+        // WHEN
+        cursor.addPage(1, firstPage);
+        result = cursor.getPage(4);
+
+        // THEN
+        assertThat(result).isNotEmpty();
+        assertThat(result.get().getResults()).isEmpty();
+        assertThat(result.get().getCurrentPage()).isEqualTo(4);
+        assertThat(result.get().getTotalPages()).isEqualTo(3);
+        assertThat(result.get().getTotalResults()).isEqualTo(50);
+    }
+
+    @Test
+    void getPageBeforeAnyPageTest() {
+        // GIVEN
+        Optional<SearchResults> result;
+
+        // WHEN
+        result = cursor.getPage(10);
+
+        // THEN
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void keepMaximumPagesTest() {
+        // GIVEN
+        SearchResults page = new SearchResults(1, 3, 50, List.of());
+
+        // WHEN
+        cursor.addPage(1, page);
+        cursor.addPage(2, page);
+        cursor.addPage(3, page);
+
+        // THEN
+        assertThat(cursor.getPageCount()).isEqualTo(2);
+        assertThat(cursor.getPage(3)).isEmpty();
+    }
+
+}
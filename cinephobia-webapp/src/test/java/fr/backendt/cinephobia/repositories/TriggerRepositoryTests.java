@@ -1,6 +1,9 @@
 package fr.backendt.cinephobia.repositories;
 
 import fr.backendt.cinephobia.models.Trigger;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -8,9 +11,10 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
@@ -23,6 +27,12 @@ class TriggerRepositoryTests {
     @Autowired
     private TriggerRepository repository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void createTriggerTest() {
         // GIVEN
@@ -50,6 +60,26 @@ class TriggerRepositoryTests {
         assertThat(result.get()).hasNoNullFieldsOrProperties();
     }
 
+    @Test
+    void getCachedTriggerByIdTest() {
+        // GIVEN
+        Long triggerId = 1L;
+        repository.findById(triggerId);
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Optional<Trigger> result;
+
+        statistics.clear();
+        // WHEN
+        result = repository.findById(triggerId);
+
+        // THEN
+        assertThat(result).isNotEmpty();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
     @Test
     void searchTriggersNameTest() {
         // GIVEN
@@ -58,13 +88,13 @@ class TriggerRepositoryTests {
         Pageable pageRequest = PageRequest.of(0, 5);
 
         int sizeExpected = 1;
-        Page<Trigger> results;
+        Slice<Trigger> results;
 
         // WHEN
-        results = repository.findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(namePart, namePart, pageRequest);
+        results = repository.findAllContainingAfterId(namePart, 0L, pageRequest);
 
         // THEN
-        assertThat(results.getTotalElements()).isEqualTo(sizeExpected);
+        assertThat(results.hasNext()).isFalse();
         assertThat(results.getContent()).hasSize(sizeExpected);
         assertThat(results.getContent().get(0).getName()).isEqualTo(fullName);
     }
@@ -77,31 +107,61 @@ class TriggerRepositoryTests {
         Pageable pageRequest = PageRequest.of(0, 5);
 
         int sizeExpected = 1;
-        Page<Trigger> results;
+        Slice<Trigger> results;
 
         // WHEN
-        results = repository.findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(descriptionPart, descriptionPart, pageRequest);
+        results = repository.findAllContainingAfterId(descriptionPart, 0L, pageRequest);
 
         // THEN
-        assertThat(results.getTotalElements()).isEqualTo(sizeExpected);
+        assertThat(results.hasNext()).isFalse();
         assertThat(results.getContent()).hasSize(sizeExpected);
         assertThat(results.getContent().get(0).getDescription()).isEqualTo(fullDescription);
     }
     @Test
     void searchUnknownTriggers() {
         // GIVEN
-        Page<Trigger> results;
+        Slice<Trigger> results;
         String incorrectSearch = "techno";
         Pageable pageRequest = PageRequest.of(0, 5);
 
         // WHEN
-        results = repository.findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(incorrectSearch, incorrectSearch, pageRequest);
+        results = repository.findAllContainingAfterId(incorrectSearch, 0L, pageRequest);
 
         // THEN
-        assertThat(results.getTotalElements()).isZero();
         assertThat(results.getContent()).isEmpty();
     }
 
+    @Test
+    void searchTriggersAfterLastIdTest() {
+        // GIVEN
+        String search = "phobia";
+        long firstTriggerId = 1L;
+        Pageable pageRequest = PageRequest.ofSize(1);
+
+        Slice<Trigger> results;
+
+        // WHEN
+        results = repository.findAllContainingAfterId(search, firstTriggerId, pageRequest);
+
+        // THEN
+        assertThat(results.getContent()).extracting(Trigger::getName).containsExactly("Bugphobia");
+        assertThat(results.hasNext()).isFalse();
+    }
+
+    @Test
+    void getTriggersAfterLastIdTest() {
+        // GIVEN
+        Pageable pageRequest = PageRequest.ofSize(1);
+        Slice<Trigger> results;
+
+        // WHEN
+        results = repository.findAllByIdGreaterThanOrderById(0L, pageRequest);
+
+        // THEN
+        assertThat(results.getContent()).extracting(Trigger::getId).containsExactly(1L);
+        assertThat(results.hasNext()).isTrue();
+    }
+
     @ValueSource(longs = {1L, 2L})
     @ParameterizedTest
     void deleteTriggerByIdTest(long triggerId) {
@@ -0,0 +1,191 @@
+package fr.backendt.cinephobia.repositories;
+
+import fr.backendt.cinephobia.models.Trigger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TriggerSearchIndexTests {
+
+    private TriggerSearchIndex searchIndex;
+    private TriggerRepository repository;
+
+    private Trigger arachnophobia;
+    private Trigger acrophobia;
+    private Trigger spiders;
+    private Trigger claustrophobia;
+
+    @BeforeEach
+    void initTests() {
+        repository = mock(TriggerRepository.class);
+        searchIndex = new TriggerSearchIndex(repository);
+
+        arachnophobia = new Trigger(1L, "Arachnophobia", "Fear of spiders");
+        acrophobia = new Trigger(2L, "Acrophobia", "Fear of heights");
+        spiders = new Trigger(3L, "Giant spiders", "Scenes with oversized arachnids");
+        claustrophobia = new Trigger(4L, "Claustrophobia", "Peur des espaces confinés");
+        List.of(arachnophobia, acrophobia, spiders, claustrophobia).forEach(searchIndex::index);
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstTest() {
+        // GIVEN
+        Slice<Trigger> result;
+
+        // WHEN
+        result = searchIndex.search("spider", null, 0L, PageRequest.ofSize(10));
+
+        // THEN
+        assertThat(result.getContent()).containsExactly(spiders, arachnophobia);
+        assertThat(result.hasNext()).isFalse();
+    }
+
+    @Test
+    void searchSubstringTest() {
+        // GIVEN
+        Slice<Trigger> result;
+
+        // WHEN
+        result = searchIndex.search("PHOBIA", null, 0L, PageRequest.ofSize(10));
+
+        // THEN
+        assertThat(result.getContent()).containsExactly(arachnophobia, acrophobia, claustrophobia);
+    }
+
+    @Test
+    void canSearchTest() {
+        // GIVEN
+        TriggerSearchIndex unloadedIndex = new TriggerSearchIndex(repository);
+        boolean shortSearchResult;
+        boolean searchResult;
+        boolean unloadedResult;
+
+        when(repository.findAllByIdGreaterThanOrderById(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        searchIndex.loadStoredTriggers();
+        // WHEN
+        shortSearchResult = searchIndex.canSearch(" r! ");
+        searchResult = searchIndex.canSearch("pho");
+        unloadedResult = unloadedIndex.canSearch("pho");
+
+        // THEN
+        assertThat(shortSearchResult).isFalse();
+        assertThat(searchResult).isTrue();
+        assertThat(unloadedResult).isFalse();
+    }
+
+    @Test
+    void searchWithoutAccentsTest() {
+        // GIVEN
+        Slice<Trigger> result;
+
+        // WHEN
+        result = searchIndex.search("confines", null, 0L, PageRequest.ofSize(10));
+
+        // THEN
+        assertThat(result.getContent()).containsExactly(claustrophobia);
+    }
+
+    @Test
+    void searchScatteredGramsTest() {
+        // GIVEN
+        Slice<Trigger> result;
+
+        // WHEN
+        result = searchIndex.search("phobia fear", null, 0L, PageRequest.ofSize(10)); // Every gram is indexed, but never in this order
+
+        // THEN
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void searchNextSliceTest() {
+        // GIVEN
+        Pageable pageable = PageRequest.ofSize(2);
+        ScoredSlice<Trigger> firstSlice;
+        Slice<Trigger> nextSlice;
+
+        // WHEN
+        firstSlice = searchIndex.search("phobia", null, 0L, pageable);
+        Long lastId = firstSlice.getContent().get(1).getId();
+        nextSlice = searchIndex.search("phobia", firstSlice.getLastScore(), lastId, pageable);
+
+        // THEN
+        assertThat(firstSlice.getContent()).containsExactly(arachnophobia, acrophobia);
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(nextSlice.getContent()).containsExactly(claustrophobia);
+        assertThat(nextSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    void searchNextSliceAfterRemovedTriggerTest() {
+        // GIVEN
+        Pageable pageable = PageRequest.ofSize(1);
+        ScoredSlice<Trigger> firstSlice;
+        Slice<Trigger> nextSlice;
+
+        // WHEN
+        firstSlice = searchIndex.search("spider", null, 0L, pageable);
+        Long lastId = firstSlice.getContent().get(0).getId();
+        searchIndex.remove(lastId);
+        nextSlice = searchIndex.search("spider", firstSlice.getLastScore(), lastId, pageable);
+
+        // THEN
+        assertThat(firstSlice.getContent()).containsExactly(spiders);
+        assertThat(nextSlice.getContent()).containsExactly(arachnophobia);
+        assertThat(nextSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    void updateAndRemoveTriggerTest() {
+        // GIVEN
+        Trigger renamedTrigger = new Trigger(2L, "Fear of heights", "Cliffs and rooftops");
+        Slice<Trigger> oldNameResult;
+        Slice<Trigger> newNameResult;
+        Slice<Trigger> removedResult;
+
+        // WHEN
+        searchIndex.index(renamedTrigger);
+        oldNameResult = searchIndex.search("acro", null, 0L, PageRequest.ofSize(10));
+        newNameResult = searchIndex.search("rooftop", null, 0L, PageRequest.ofSize(10));
+        searchIndex.remove(renamedTrigger.getId());
+        removedResult = searchIndex.search("rooftop", null, 0L, PageRequest.ofSize(10));
+
+        // THEN
+        assertThat(oldNameResult).isEmpty();
+        assertThat(newNameResult.getContent()).containsExactly(renamedTrigger);
+        assertThat(removedResult).isEmpty();
+        assertThat(searchIndex.getTriggerCount()).isEqualTo(3);
+    }
+
+    @Test
+    void loadStoredTriggersTest() {
+        // GIVEN
+        TriggerSearchIndex emptyIndex = new TriggerSearchIndex(repository);
+        Trigger storedTrigger = new Trigger(5L, "Hemophobia", "Fear of blood");
+        boolean loadedBefore;
+
+        when(repository.findAllByIdGreaterThanOrderById(eq(0L), any()))
+                .thenReturn(new SliceImpl<>(List.of(storedTrigger)));
+        // WHEN
+        loadedBefore = emptyIndex.isLoaded();
+        emptyIndex.loadStoredTriggers();
+
+        // THEN
+        assertThat(loadedBefore).isFalse();
+        assertThat(emptyIndex.isLoaded()).isTrue();
+        assertThat(emptyIndex.search("blood", null, 0L, PageRequest.ofSize(10)).getContent()).containsExactly(storedTrigger);
+    }
+
+}
@@ -2,6 +2,9 @@ package fr.backendt.cinephobia.repositories;
 
 import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.models.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -9,10 +12,11 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 import java.util.Set;
@@ -27,6 +31,12 @@ class UserRepositoryTests {
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User userTest;
 
     @BeforeEach
@@ -80,11 +90,11 @@ class UserRepositoryTests {
     @Test
     void getUsersTest() {
         // GIVEN
-        Pageable pageable = PageRequest.of(0, 50);
-        Page<User> results;
+        Pageable pageable = PageRequest.ofSize(50);
+        Slice<User> results;
 
         // WHEN
-        results = repository.findAll(pageable);
+        results = repository.findAllByIdGreaterThanOrderById(0L, pageable);
 
         // THEN
         assertThat(results).isNotEmpty();
@@ -95,13 +105,13 @@ class UserRepositoryTests {
     void getUsersContainingInNameTest() {
         // GIVEN
         String nameSearch = "joh";
-        Pageable pageable = PageRequest.of(0, 50);
+        Pageable pageable = PageRequest.ofSize(50);
 
         String expectedName = "John Doe";
-        Page<User> results;
+        Slice<User> results;
 
         // WHEN
-        results = repository.findAllByDisplayNameContainingIgnoreCase(nameSearch, pageable);
+        results = repository.findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById(nameSearch, 0L, pageable);
 
         // THEN
         assertThat(results).isNotEmpty();
@@ -109,6 +119,44 @@ class UserRepositoryTests {
         assertThat(results.getContent().get(0).getDisplayName()).isEqualTo(expectedName);
     }
 
+    @CsvSource({
+            "\"ohn\", nobody%, John Doe",
+            "\"xx\", jane.d%, Jane Doe"
+    })
+    @ParameterizedTest
+    void getUsersMatchingNameOrEmailTest(String namePhrase, String emailPrefix, String expectedName) {
+        // GIVEN
+        Pageable pageable = PageRequest.ofSize(50);
+        Slice<User> results;
+
+        // WHEN
+        results = repository.findAllMatchingAfterId(namePhrase, emailPrefix, 0L, pageable);
+
+        // THEN
+        assertThat(results.getContent())
+                .extracting(User::getDisplayName)
+                .containsExactly(expectedName);
+        assertThat(results.getContent().get(0)).hasNoNullFieldsOrProperties();
+    }
+
+    @Test
+    void getUsersMatchingAfterIdTest() {
+        // GIVEN
+        Pageable pageable = PageRequest.ofSize(1);
+        Slice<User> firstSlice;
+        Slice<User> nextSlice;
+
+        // WHEN
+        firstSlice = repository.findAllMatchingAfterId("\"doe\"", "doe%", 0L, pageable);
+        nextSlice = repository.findAllMatchingAfterId("\"doe\"", "doe%", firstSlice.getContent().get(0).getId(), pageable);
+
+        // THEN
+        assertThat(firstSlice.getContent()).extracting(User::getDisplayName).containsExactly("John Doe");
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(nextSlice.getContent()).extracting(User::getDisplayName).containsExactly("Jane Doe");
+        assertThat(nextSlice.hasNext()).isFalse();
+    }
+
     @Test
     void getUserByIdTest() {
         // GIVEN
@@ -159,6 +207,27 @@ class UserRepositoryTests {
         assertThat(result.get().getTriggers().toArray()[0]).hasNoNullFieldsOrProperties();
     }
 
+    @Test
+    void getUserWithCachedTriggersTest() {
+        // GIVEN
+        String userEmail = "jane.doe@test.com";
+        repository.findUserWithRelationsByEmail(userEmail);
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Optional<User> result;
+
+        statistics.clear();
+        // WHEN
+        result = repository.findUserWithRelationsByEmail(userEmail);
+
+        // THEN
+        assertThat(result).isNotEmpty();
+        assertThat(result.get().getTriggers()).isNotEmpty();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive(); // The trigger ids, then each trigger
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // Only the user select
+    }
+
     @Test
     void deleteUserByIdTest() {
         // GIVEN
@@ -4,7 +4,12 @@ import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.models.User;
 import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
 import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +17,9 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
@@ -26,6 +33,15 @@ class WarnRepositoryTests {
     @Autowired
     private WarnRepository repository;
 
+    @Autowired
+    private TriggerRepository triggerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Warn warn;
 
     @BeforeEach
@@ -48,6 +64,23 @@ class WarnRepositoryTests {
         assertThat(result).hasNoNullFieldsOrProperties();
     }
 
+    @Test
+    void createWarnFromReferencesTest() {
+        // GIVEN
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Warn newWarn = new Warn(triggerRepository.getReferenceById(1L), userRepository.getReferenceById(2L), 1L, MediaType.MOVIE, 4);
+
+        Warn result;
+
+        statistics.clear();
+        // WHEN
+        result = repository.saveAndFlush(newWarn);
+
+        // THEN
+        assertThat(result.getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // Only the INSERT
+    }
+
     @Test
     void createDuplicateWarnTest() {
         // GIVEN
@@ -63,6 +96,22 @@ class WarnRepositoryTests {
                 .withCauseExactlyInstanceOf(ConstraintViolationException.class);
     }
 
+    @Test
+    void createWarnWithUnknownTriggerTest() {
+        // GIVEN
+        Trigger unknownTrigger = new Trigger(404L, "Unknownphobia", "Fear of unknown triggers");
+        User user = new User(1L, "John Doe", "john.doe@test.com", "John1234", "USER");
+        Warn warn = new Warn(unknownTrigger, user, 3L, MediaType.MOVIE, 5);
+
+        // WHEN
+        // THEN
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> repository.saveAndFlush(warn))
+                .havingCause()
+                .isInstanceOfSatisfying(ConstraintViolationException.class,
+                        violation -> assertThat(violation.getConstraintName()).endsWithIgnoringCase("FK_Warn_Trigger"));
+    }
+
     @Test
     void getWarnByIdTest() {
         // GIVEN
@@ -96,13 +145,36 @@ class WarnRepositoryTests {
         // GIVEN
         long mediaId = 1L;
         MediaType mediaType = MediaType.MOVIE;
-        Page<Warn> results;
+        WarnResponseDTO expectedWarn = new WarnResponseDTO(1L, mediaId, mediaType, 2L, "Bugphobia", "Fear of software bugs", 9);
+        Slice<WarnResponseDTO> results;
 
         // WHEN
-        results = repository.findAllByMediaIdAndMediaType(mediaId, mediaType, Pageable.unpaged());
+        results = repository.findResponsesByMedia(mediaId, mediaType, 0L, Pageable.unpaged());
 
         // THEN
-        assertThat(results).isNotEmpty();
+        assertThat(results).containsExactly(expectedWarn);
+    }
+
+    @Test
+    void getWarnsByMediaAfterLastIdTest() {
+        // GIVEN
+        long mediaId = 1L;
+        MediaType mediaType = MediaType.MOVIE;
+        Trigger trigger = new Trigger(1L, "Testphobia", "Fear of unit tests failing");
+        User user = new User(2L, "Jane Doe", "jane.doe@test.com", "Jane1234", "USER");
+        Warn nextWarn = repository.save(new Warn(trigger, user, mediaId, mediaType, 2));
+
+        Slice<WarnResponseDTO> firstSlice;
+        Slice<WarnResponseDTO> nextSlice;
+
+        // WHEN
+        firstSlice = repository.findResponsesByMedia(mediaId, mediaType, 0L, PageRequest.ofSize(1));
+        nextSlice = repository.findResponsesByMedia(mediaId, mediaType, firstSlice.getContent().get(0).getId(), PageRequest.ofSize(1));
+
+        // THEN
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(nextSlice.getContent()).extracting(WarnResponseDTO::getId).containsExactly(nextWarn.getId());
+        assertThat(nextSlice.hasNext()).isFalse();
     }
 
     @Test
@@ -110,23 +182,46 @@ class WarnRepositoryTests {
         // GIVEN
         long mediaId = 0L;
         MediaType mediaType = MediaType.MOVIE;
-        Page<Warn> results;
+        Slice<WarnResponseDTO> results;
 
         // WHEN
-        results = repository.findAllByMediaIdAndMediaType(mediaId, mediaType, Pageable.unpaged());
+        results = repository.findResponsesByMedia(mediaId, mediaType, 0L, Pageable.unpaged());
 
         // THEN
         assertThat(results).isEmpty();
     }
 
     @Test
-    void getWarnsByUserEmailTest() {
+    void getWarnsByMediaInSingleQueryTest() {
         // GIVEN
-        String userEmail = "john.doe@test.com";
-        Page<Warn> results;
+        long mediaId = 1L;
+        MediaType mediaType = MediaType.MOVIE;
+        Trigger trigger = new Trigger(1L, "Testphobia", "Fear of unit tests failing");
+        User user = new User(2L, "Jane Doe", "jane.doe@test.com", "Jane1234", "USER");
+        repository.saveAndFlush(new Warn(trigger, user, mediaId, mediaType, 2));
 
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Slice<WarnResponseDTO> results;
+
+        statistics.clear();
         // WHEN
-        results = repository.findAllByUserEmail(userEmail, Pageable.unpaged());
+        results = repository.findResponsesByMedia(mediaId, mediaType, 0L, PageRequest.ofSize(50));
+
+        // THEN
+        assertThat(results).hasSize(2);
+        assertThat(results.getContent()).extracting(warn -> warn.getTrigger().getName()).containsExactly("Bugphobia", "Testphobia");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // Neither a users join nor a query per trigger
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void getWarnsByUserIdTest() {
+        // GIVEN
+        long userId = 1L;
+        Slice<WarnResponseDTO> results;
+
+        // WHEN
+        results = repository.findResponsesByUserId(userId, 0L, Pageable.unpaged());
 
         // THEN
         assertThat(results).isNotEmpty();
@@ -134,18 +229,55 @@ class WarnRepositoryTests {
     }
 
     @Test
-    void getWarnsByUnknownUserEmailTest() {
+    void getWarnsByUnknownUserIdTest() {
         // GIVEN
-        String userEmail = "unknown@test.com";
-        Page<Warn> results;
+        long userId = 0L;
+        Slice<WarnResponseDTO> results;
 
         // WHEN
-        results = repository.findAllByUserEmail(userEmail, Pageable.unpaged());
+        results = repository.findResponsesByUserId(userId, 0L, Pageable.unpaged());
 
         // THEN
         assertThat(results).isEmpty();
     }
 
+    @Test
+    void getWarnsByUserIdInSingleQueryTest() {
+        // GIVEN
+        long userId = 1L;
+        Trigger trigger = new Trigger(1L, "Testphobia", "Fear of unit tests failing");
+        User user = new User(userId, "John Doe", "john.doe@test.com", "John1234", "USER");
+        repository.saveAndFlush(new Warn(trigger, user, 2L, MediaType.TV, 2));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Slice<WarnResponseDTO> results;
+
+        statistics.clear();
+        // WHEN
+        results = repository.findResponsesByUserId(userId, 0L, PageRequest.ofSize(50));
+
+        // THEN
+        assertThat(results).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void getWarnByIdWithoutAssociationsTest() {
+        // GIVEN
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Warn result;
+
+        statistics.clear();
+        // WHEN
+        result = repository.findById(1L).orElseThrow();
+
+        // THEN
+        assertThat(Hibernate.isInitialized(result.getTrigger())).isFalse();
+        assertThat(Hibernate.isInitialized(result.getUser())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
     @Test
     void deleteWarnByIdTest() {
         // GIVEN
@@ -163,35 +295,121 @@ class WarnRepositoryTests {
     }
 
     @Test
-    void existsByUniqueFieldsTest() {
+    void updateWarnOwnedByUserTest() {
         // GIVEN
-        long userId = 1;
-        long triggerId = 2;
-        long mediaId = 1;
-        MediaType mediaType = MediaType.MOVIE;
+        long warnId = 1L;
+        long ownerId = 1L;
+        long newMediaId = 2L;
+        int newExpositionLevel = 3;
+
+        int updatedWarns;
+        Warn result;
 
-        boolean result;
         // WHEN
-        result = repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(userId, triggerId, mediaId, mediaType);
+        updatedWarns = repository.updateWarn(warnId, ownerId, null, newMediaId, null, newExpositionLevel);
+        result = repository.findById(warnId).orElseThrow();
 
         // THEN
-        assertThat(result).isTrue();
+        assertThat(updatedWarns).isEqualTo(1);
+        assertThat(result.getMediaId()).isEqualTo(newMediaId);
+        assertThat(result.getMediaType()).isEqualTo(MediaType.MOVIE);
+        assertThat(result.getTrigger().getId()).isEqualTo(2L);
+        assertThat(result.getExpositionLevel()).isEqualTo(newExpositionLevel);
     }
 
     @Test
-    void doesNotExistsByUniqueFieldsTest() {
+    void updateWarnOwnedByOtherUserTest() {
         // GIVEN
-        long userId = 1;
-        long triggerId = 1;
-        long mediaId = 1;
-        MediaType mediaType = MediaType.MOVIE;
+        long warnId = 1L;
+        long otherUserId = 2L;
+
+        int updatedWarns;
+
+        // WHEN
+        updatedWarns = repository.updateWarn(warnId, otherUserId, null, null, null, 3);
+
+        // THEN
+        assertThat(updatedWarns).isZero();
+    }
+
+    @Test
+    void updateWarnToDuplicateTest() {
+        // GIVEN
+        Trigger trigger = new Trigger(2L, "Bugphobia", "Fear of software bugs");
+        User user = new User(1L, "John Doe", "john.doe@test.com", "John1234", "USER");
+        Warn otherWarn = repository.saveAndFlush(new Warn(trigger, user, 2L, MediaType.MOVIE, 5));
+
+        // WHEN
+        // THEN
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> repository.updateWarn(otherWarn.getId(), null, null, 1L, null, 5))
+                .withCauseExactlyInstanceOf(ConstraintViolationException.class);
+    }
+
+    @Test
+    void deleteWarnOwnedByUserTest() {
+        // GIVEN
+        long warnId = 1L;
+        long ownerId = 1L;
+
+        int deletedWarns;
+        boolean existsAfter;
+
+        // WHEN
+        deletedWarns = repository.deleteWarn(warnId, ownerId);
+        existsAfter = repository.existsById(warnId);
+
+        // THEN
+        assertThat(deletedWarns).isEqualTo(1);
+        assertThat(existsAfter).isFalse();
+    }
+
+    @Test
+    void deleteWarnOwnedByOtherUserTest() {
+        // GIVEN
+        long warnId = 1L;
+        long otherUserId = 2L;
+
+        int deletedWarns;
+        boolean existsAfter;
+
+        // WHEN
+        deletedWarns = repository.deleteWarn(warnId, otherUserId);
+        existsAfter = repository.existsById(warnId);
+
+        // THEN
+        assertThat(deletedWarns).isZero();
+        assertThat(existsAfter).isTrue();
+    }
+
+    @Test
+    void deleteWarnWithoutOwnerTest() {
+        // GIVEN
+        long warnId = 1L;
+
+        int deletedWarns;
+
+        // WHEN
+        deletedWarns = repository.deleteWarn(warnId, null);
+
+        // THEN
+        assertThat(deletedWarns).isEqualTo(1);
+    }
+
+    @Test
+    void mutateWarnInSingleStatementTest() {
+        // GIVEN
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long warnId = 1L;
+        long ownerId = 1L;
 
-        boolean result;
+        statistics.clear();
         // WHEN
-        result = repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(userId, triggerId, mediaId, mediaType);
+        repository.updateWarn(warnId, ownerId, null, null, null, 2);
+        repository.deleteWarn(warnId, ownerId);
 
         // THEN
-        assertThat(result).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
     }
 
     @Test
@@ -2,16 +2,22 @@ package fr.backendt.cinephobia.services;
 
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Media;
+import fr.backendt.cinephobia.models.MediaId;
 import fr.backendt.cinephobia.models.MediaType;
 import fr.backendt.cinephobia.models.tmdb.SearchResults;
+import fr.backendt.cinephobia.models.tmdb.SearchSource;
+import fr.backendt.cinephobia.repositories.MediaMetadataRepository;
 import fr.backendt.cinephobia.repositories.MediaRepository;
+import fr.backendt.cinephobia.repositories.MediaSearchIndex;
+import fr.backendt.cinephobia.repositories.MediaSuggestionIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CompletionException;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -21,6 +27,8 @@ class MediaServiceTests {
 
     private MediaService service;
     private MediaRepository repository;
+    private MediaSearchIndex searchIndex;
+    private MediaSuggestionIndex suggestionIndex;
 
     private Media movie;
     private Media series;
@@ -28,7 +36,9 @@ class MediaServiceTests {
     @BeforeEach
     void initTests() {
         repository = Mockito.mock(MediaRepository.class);
-        service = new MediaService(repository);
+        searchIndex = new MediaSearchIndex(Mockito.mock(MediaMetadataRepository.class), 1000);
+        suggestionIndex = Mockito.mock(MediaSuggestionIndex.class);
+        service = new MediaService(repository, searchIndex, suggestionIndex, 1, Duration.ofDays(1));
 
         series = new Media(4321L, MediaType.TV, "4321 Series", "The 4321 series", "https://4312.com/poster");
         movie = new Media(1234L, MediaType.MOVIE, "1234 Movie", "The 1234 Movie", "https://1234.com/poster");
@@ -41,9 +51,9 @@ class MediaServiceTests {
 
         Media result;
 
-        when(repository.getMovie(any())).thenReturn(Optional.of(movie));
+        when(repository.getMovie(any())).thenReturn(Mono.just(movie));
         // WHEN
-        result = service.getMovie(movieId).join();
+        result = service.getMovie(movieId).block();
 
         // THEN
         verify(repository).getMovie(movieId);
@@ -55,11 +65,10 @@ class MediaServiceTests {
         // GIVEN
         long movieId = 1L;
 
-        when(repository.getMovie(any())).thenReturn(Optional.empty());
+        when(repository.getMovie(any())).thenReturn(Mono.empty());
         // WHEN
-        assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.getMovie(movieId).join())
-                .withCauseExactlyInstanceOf(EntityNotFoundException.class);
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.getMovie(movieId).block());
 
         // THEN
         verify(repository).getMovie(movieId);
@@ -72,9 +81,9 @@ class MediaServiceTests {
 
         Media result;
 
-        when(repository.getSeries(any())).thenReturn(Optional.of(series));
+        when(repository.getSeries(any())).thenReturn(Mono.just(series));
         // WHEN
-        result = service.getSeries(seriesId).join();
+        result = service.getSeries(seriesId).block();
 
         // THEN
         verify(repository).getSeries(seriesId);
@@ -86,11 +95,10 @@ class MediaServiceTests {
         // GIVEN
         long seriesId = 1L;
 
-        when(repository.getSeries(any())).thenReturn(Optional.empty());
+        when(repository.getSeries(any())).thenReturn(Mono.empty());
         // WHEN
-        assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.getSeries(seriesId).join())
-                .withCauseExactlyInstanceOf(EntityNotFoundException.class);
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.getSeries(seriesId).block());
 
         // THEN
         verify(repository).getSeries(seriesId);
@@ -106,9 +114,9 @@ class MediaServiceTests {
         SearchResults searchResults = new SearchResults(page, page, 2, searchMedias);
         SearchResults result;
 
-        when(repository.searchMedias(any(), anyInt())).thenReturn(searchResults);
+        when(repository.searchMedias(any(), anyInt())).thenReturn(Mono.just(searchResults));
         // WHEN
-        result = service.getMedias(mediaTitlePart, page).join();
+        result = service.getMedias(mediaTitlePart, page, null).block();
 
         // THEN
         verify(repository).searchMedias(mediaTitlePart, page);
@@ -116,6 +124,84 @@ class MediaServiceTests {
         assertThat(result).isEqualTo(searchResults);
     }
 
+    @Test
+    void getMediasFromIndexTest() {
+        // GIVEN
+        String mediaTitlePart = "1234 mov";
+        int page = 1;
+
+        SearchResults tmdbResults = new SearchResults(page, page, 1, List.of(movie));
+        SearchResults firstResult;
+        SearchResults result;
+
+        searchIndex.index(movie);
+        searchIndex.index(series);
+        when(repository.searchMedias(any(), anyInt())).thenReturn(Mono.just(tmdbResults));
+        // WHEN
+        firstResult = service.getMedias(mediaTitlePart, page, null).block();
+        result = service.getMedias(" 1234 MOV", page, null).block(); // Checked against TMDB by the first search
+
+        // THEN
+        verify(repository, times(1)).searchMedias(any(), anyInt());
+        assertThat(firstResult).isEqualTo(tmdbResults);
+        assertThat(result.getTotalResults()).isEqualTo(1);
+        assertThat(result.getResults()).containsExactly(movie);
+    }
+
+    @Test
+    void getMediasFromIndexWhenTMDBFailsTest() {
+        // GIVEN
+        String mediaTitlePart = "1234 mov";
+        int page = 1;
+
+        SearchResults result;
+
+        searchIndex.index(movie);
+        when(repository.searchMedias(any(), anyInt())).thenReturn(Mono.error(new IllegalStateException("TMDB is down")));
+        // WHEN
+        result = service.getMedias(mediaTitlePart, page, null).block();
+
+        // THEN
+        assertThat(result.getResults()).containsExactly(movie);
+    }
+
+    @Test
+    void getMediasNextPageFromIndexTest() {
+        // GIVEN
+        String mediaTitlePart = "1234 mov";
+        int page = 1;
+
+        SearchResults result;
+
+        searchIndex.index(movie);
+        // WHEN
+        result = service.getMedias(mediaTitlePart, page, SearchSource.INDEX).block();
+
+        // THEN
+        verify(repository, never()).searchMedias(any(), anyInt());
+        assertThat(result.getSource()).isEqualTo(SearchSource.INDEX);
+        assertThat(result.getResults()).containsExactly(movie);
+    }
+
+    @Test
+    void getMediasNextPageFromTMDBTest() {
+        // GIVEN
+        String mediaTitlePart = "1234 mov";
+        int page = 2;
+
+        SearchResults tmdbResults = new SearchResults(page, page, 1, List.of(series));
+        SearchResults result;
+
+        searchIndex.index(movie);
+        when(repository.searchMedias(any(), anyInt())).thenReturn(Mono.just(tmdbResults));
+        // WHEN
+        result = service.getMedias(mediaTitlePart, page, SearchSource.TMDB).block();
+
+        // THEN
+        verify(repository).searchMedias(mediaTitlePart, page);
+        assertThat(result).isEqualTo(tmdbResults);
+    }
+
     @Test
     void getMediasWithoutSearchTest() {
         // GIVEN
@@ -126,9 +212,9 @@ class MediaServiceTests {
         SearchResults searchResults = new SearchResults(page, page, 1, searchMedias);
         SearchResults result;
 
-        when(repository.getPopularMovies(anyInt())).thenReturn(searchResults);
+        when(repository.getPopularMovies(anyInt())).thenReturn(Mono.just(searchResults));
         // WHEN
-        result = service.getMedias(mediaTitlePart, page).join();
+        result = service.getMedias(mediaTitlePart, page, null).block();
 
         // THEN
         verify(repository).getPopularMovies(page);
@@ -136,4 +222,60 @@ class MediaServiceTests {
         assertThat(result).isEqualTo(searchResults);
     }
 
+    @Test
+    void getMediasOnlyWhenSubscribedTest() {
+        // GIVEN
+        int page = 1;
+
+        // WHEN
+        service.getMedias("1234 mov", page, null);
+        service.getMedias(" ", page, null);
+
+        // THEN
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getMediasByIdTest() {
+        // GIVEN
+        MediaId movieId = new MediaId(movie.getId(), MediaType.MOVIE);
+        MediaId seriesId = new MediaId(series.getId(), MediaType.TV);
+        MediaId unknownId = new MediaId(1L, MediaType.MOVIE);
+        List<MediaId> mediaIds = List.of(movieId, seriesId, movieId, unknownId);
+
+        Map<MediaId, Media> result;
+
+        when(repository.getMovie(movie.getId())).thenReturn(Mono.just(movie));
+        when(repository.getMovie(unknownId.getId())).thenReturn(Mono.empty());
+        when(repository.getSeries(series.getId())).thenReturn(Mono.just(series));
+        // WHEN
+        result = service.getMediasById(mediaIds).block();
+
+        // THEN
+        verify(repository).getMovie(movie.getId());
+        verify(repository).getMovie(unknownId.getId());
+        verify(repository).getSeries(series.getId());
+        assertThat(result)
+                .hasSize(2)
+                .containsEntry(movieId, movie)
+                .containsEntry(seriesId, series);
+    }
+
+    @Test
+    void getSuggestionsTest() {
+        // GIVEN
+        String mediaTitlePart = "123";
+
+        List<Media> result;
+
+        when(suggestionIndex.suggest(any())).thenReturn(List.of(movie));
+        // WHEN
+        result = service.getSuggestions(mediaTitlePart);
+
+        // THEN
+        verify(suggestionIndex).suggest(mediaTitlePart);
+        verifyNoInteractions(repository);
+        assertThat(result).containsExactly(movie);
+    }
+
 }
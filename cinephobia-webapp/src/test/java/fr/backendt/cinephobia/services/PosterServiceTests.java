@@ -0,0 +1,70 @@
+package fr.backendt.cinephobia.services;
+
+import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
+import fr.backendt.cinephobia.models.PosterSize;
+import fr.backendt.cinephobia.repositories.PosterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+class PosterServiceTests {
+
+    private PosterService service;
+    private PosterRepository repository;
+
+    @BeforeEach
+    void initTests() {
+        repository = Mockito.mock(PosterRepository.class);
+        service = new PosterService(repository);
+    }
+
+    @Test
+    void getPosterTest() {
+        // GIVEN
+        String posterName = "poster.jpg";
+        Path posterFile = Path.of("w342", posterName);
+        Path result;
+
+        when(repository.getPoster(any(), any())).thenReturn(Mono.just(posterFile));
+        // WHEN
+        result = service.getPoster("w342", posterName).block();
+
+        // THEN
+        verify(repository).getPoster(PosterSize.W342, posterName);
+        assertThat(result).isEqualTo(posterFile);
+    }
+
+    @Test
+    void getPosterWithUnknownSizeTest() {
+        // GIVEN
+        String unknownSize = "original";
+
+        // WHEN
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.getPoster(unknownSize, "poster.jpg").block());
+
+        // THEN
+        verify(repository, never()).getPoster(any(), any());
+    }
+
+    @Test
+    void getUnknownPosterTest() {
+        // GIVEN
+        when(repository.getPoster(any(), any())).thenReturn(Mono.empty());
+
+        // WHEN
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.getPoster("w185", "poster.jpg").block());
+
+        // THEN
+        verify(repository).getPoster(PosterSize.W185, "poster.jpg");
+    }
+
+}
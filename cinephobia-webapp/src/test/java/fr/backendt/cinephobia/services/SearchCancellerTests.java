@@ -0,0 +1,97 @@
+package fr.backendt.cinephobia.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCancellerTests {
+
+    private SearchCanceller canceller;
+
+    @BeforeEach
+    void initTests() {
+        canceller = new SearchCanceller();
+    }
+
+    @Test
+    void cancelOlderSearchTest() {
+        // GIVEN
+        Sinks.One<String> olderSearch = Sinks.one();
+        Sinks.One<String> newerSearch = Sinks.one();
+
+        CompletableFuture<String> olderResult;
+        CompletableFuture<String> newerResult;
+
+        // WHEN
+        olderResult = canceller.cancelOnNewerSearch("user:john", "search", olderSearch.asMono()).toFuture();
+        newerResult = canceller.cancelOnNewerSearch("user:john", "search", newerSearch.asMono()).toFuture();
+        newerSearch.tryEmitValue("newer");
+
+        // THEN
+        assertThat(olderResult).isCompletedWithValue(null);
+        assertThat(olderSearch.currentSubscriberCount()).isZero();
+        assertThat(newerResult).isCompletedWithValue("newer");
+        assertThat(canceller.getCancelledSearchCount()).isEqualTo(1);
+        assertThat(canceller.getInFlightSearchCount()).isZero();
+    }
+
+    @Test
+    void keepOtherSearchIdsTest() {
+        // GIVEN
+        Sinks.One<String> firstSearch = Sinks.one();
+
+        CompletableFuture<String> firstResult;
+        String secondResult;
+
+        // WHEN
+        firstResult = canceller.cancelOnNewerSearch("user:john", "first-search", firstSearch.asMono()).toFuture();
+        secondResult = canceller.cancelOnNewerSearch("user:john", "second-search", Mono.just("second")).block();
+        firstSearch.tryEmitValue("first");
+
+        // THEN
+        assertThat(firstResult).isCompletedWithValue("first");
+        assertThat(secondResult).isEqualTo("second");
+        assertThat(canceller.getCancelledSearchCount()).isZero();
+    }
+
+    @Test
+    void keepOtherSearchersTest() {
+        // GIVEN
+        Sinks.One<String> firstSearch = Sinks.one();
+
+        CompletableFuture<String> firstResult;
+        String secondResult;
+
+        // WHEN
+        firstResult = canceller.cancelOnNewerSearch("user:john", "search", firstSearch.asMono()).toFuture();
+        secondResult = canceller.cancelOnNewerSearch("user:jane", "search", Mono.just("second")).block();
+        firstSearch.tryEmitValue("first");
+
+        // THEN
+        assertThat(firstResult).isCompletedWithValue("first");
+        assertThat(secondResult).isEqualTo("second");
+        assertThat(canceller.getCancelledSearchCount()).isZero();
+    }
+
+    @Test
+    void doNotCountFinishedSearchesTest() {
+        // GIVEN
+        String firstResult;
+        String secondResult;
+
+        // WHEN
+        firstResult = canceller.cancelOnNewerSearch("user:john", "search", Mono.just("first")).block();
+        secondResult = canceller.cancelOnNewerSearch("user:john", "search", Mono.just("second")).block();
+
+        // THEN
+        assertThat(firstResult).isEqualTo("first");
+        assertThat(secondResult).isEqualTo("second");
+        assertThat(canceller.getCancelledSearchCount()).isZero();
+    }
+
+}
@@ -1,16 +1,21 @@
 package fr.backendt.cinephobia.services;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
 import fr.backendt.cinephobia.repositories.TriggerRepository;
+import fr.backendt.cinephobia.repositories.ScoredSlice;
+import fr.backendt.cinephobia.repositories.TriggerSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +28,8 @@ import static org.mockito.Mockito.*;
 class TriggerServiceTests {
 
     private TriggerRepository repository;
+    private TriggerSearchIndex searchIndex;
+    private Cache secondLevelCache;
     private TriggerService service;
 
     private Trigger trigger;
@@ -30,7 +37,11 @@ class TriggerServiceTests {
     @BeforeEach
     void initTests() {
         repository = Mockito.mock(TriggerRepository.class);
-        service = new TriggerService(repository);
+        searchIndex = Mockito.mock(TriggerSearchIndex.class);
+        secondLevelCache = Mockito.mock(Cache.class);
+        EntityManagerFactory entityManagerFactory = Mockito.mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS);
+        when(entityManagerFactory.getCache().unwrap(Cache.class)).thenReturn(secondLevelCache);
+        service = new TriggerService(repository, searchIndex, new ModelMapperConfig().updateMapper(), entityManagerFactory);
 
         trigger = new Trigger(1L, "Testphobia", "Fear of tests");
     }
@@ -52,6 +63,7 @@ class TriggerServiceTests {
         assertThat(result).isEqualTo(trigger);
         verify(repository).existsByNameIgnoreCase(trigger.getName());
         verify(repository).save(expected);
+        verify(searchIndex).index(trigger);
     }
 
     @Test
@@ -74,18 +86,19 @@ class TriggerServiceTests {
         // GIVEN
         List<Trigger> triggers = List.of(trigger);
 
-        Pageable pageable = PageRequest.of(0, 5);
-        Page<Trigger> triggerPage = new PageImpl<>(triggers);
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(5);
+        Slice<Trigger> triggerPage = new SliceImpl<>(triggers);
 
-        Page<Trigger> results;
+        Slice<Trigger> results;
 
-        when(repository.findAll(any(Pageable.class))).thenReturn(triggerPage);
+        when(repository.findAllByIdGreaterThanOrderById(any(), any())).thenReturn(triggerPage);
         // WHEN
-        results = service.getTriggers(null, pageable).join();
+        results = service.getTriggers(null, null, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAll(pageable);
-        verify(repository, never()).findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(any(), any(), any());
+        verify(repository).findAllByIdGreaterThanOrderById(afterId, pageable);
+        verify(repository, never()).findAllContainingAfterId(any(), any(), any());
         assertThat(results).isEqualTo(triggerPage);
         assertThat(results.getContent()).containsExactlyElementsOf(triggers);
     }
@@ -96,23 +109,74 @@ class TriggerServiceTests {
         String search = "test";
         List<Trigger> triggers = List.of(trigger);
 
-        Pageable pageable = PageRequest.of(0, 5);
-        Page<Trigger> triggersPage = new PageImpl<>(triggers);
+        int afterScore = 2;
+        long afterId = 3L;
+        Pageable pageable = PageRequest.ofSize(5);
+        ScoredSlice<Trigger> triggersPage = new ScoredSlice<>(triggers, pageable, false, 2);
 
-        Page<Trigger> results;
+        Slice<Trigger> results;
 
-        when(repository.findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(any(), any(), any()))
+        when(searchIndex.canSearch(any())).thenReturn(true);
+        when(searchIndex.search(any(), any(), any(), any()))
                 .thenReturn(triggersPage);
         // WHEN
-        results = service.getTriggers(search, pageable).join();
+        results = service.getTriggers(search, afterScore, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(search, search, pageable);
-        verify(repository, never()).findAll(any(Pageable.class));
+        verify(searchIndex).search(search, afterScore, afterId, pageable);
+        verifyNoInteractions(repository);
         assertThat(results).isEqualTo(triggersPage);
         assertThat(results.getContent()).containsExactlyElementsOf(triggers);
     }
 
+    @Test
+    void getTriggersAfterUnindexedSearchTest() {
+        // GIVEN
+        String search = "test";
+        List<Trigger> triggers = List.of(trigger);
+
+        long afterId = 3L;
+        Pageable pageable = PageRequest.ofSize(5);
+        Slice<Trigger> triggersPage = new SliceImpl<>(triggers);
+
+        Slice<Trigger> results;
+
+        when(searchIndex.canSearch(any())).thenReturn(true);
+        when(repository.findAllContainingAfterId(any(), any(), any()))
+                .thenReturn(triggersPage);
+        // WHEN
+        results = service.getTriggers(search, null, afterId, pageable).join(); // Started before the index was loaded
+
+        // THEN
+        verify(repository).findAllContainingAfterId(search, afterId, pageable);
+        verify(searchIndex, never()).search(any(), any(), any(), any());
+        assertThat(results).isEqualTo(triggersPage);
+    }
+
+    @Test
+    void getTriggersWithUnindexedSearchTest() {
+        // GIVEN
+        String search = "test";
+        List<Trigger> triggers = List.of(trigger);
+
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(5);
+        Slice<Trigger> triggersPage = new SliceImpl<>(triggers);
+
+        Slice<Trigger> results;
+
+        when(searchIndex.canSearch(any())).thenReturn(false);
+        when(repository.findAllContainingAfterId(any(), any(), any()))
+                .thenReturn(triggersPage);
+        // WHEN
+        results = service.getTriggers(search, null, afterId, pageable).join();
+
+        // THEN
+        verify(repository).findAllContainingAfterId(search, afterId, pageable);
+        verify(searchIndex, never()).search(any(), any(), any(), any());
+        assertThat(results).isEqualTo(triggersPage);
+    }
+
     @Test
     void getTriggerByIdTest() throws EntityNotFoundException {
         // GIVEN
@@ -167,6 +231,7 @@ class TriggerServiceTests {
         verify(repository).existsByNameIgnoreCase(newName);
         verify(repository).findById(triggerId);
         verify(repository).save(expectedTrigger);
+        verify(searchIndex).index(expectedTrigger);
         assertThat(result).isEqualTo(expectedTrigger);
     }
 
@@ -225,6 +290,8 @@ class TriggerServiceTests {
         // THEN
         verify(repository).existsById(triggerId);
         verify(repository).deleteById(triggerId);
+        verify(searchIndex).remove(triggerId);
+        verify(secondLevelCache).evictCollectionData("fr.backendt.cinephobia.models.User.triggers");
     }
 
     @Test
@@ -1,5 +1,6 @@
 package fr.backendt.cinephobia.services;
 
+import fr.backendt.cinephobia.configurations.ModelMapperConfig;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.Trigger;
@@ -10,10 +11,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -40,7 +41,7 @@ class UserServiceTests {
     void initTests() {
         this.repository = Mockito.mock(UserRepository.class);
         this.passwordEncoder = Mockito.mock(PasswordEncoder.class);
-        this.service = new UserService(repository, passwordEncoder);
+        this.service = new UserService(repository, passwordEncoder, new ModelMapperConfig().updateMapper());
 
         testUser = new User(null, "Jane Doe", "jane.doe@test.com", "myPassword1234", null, new HashSet<>());
         when(passwordEncoder.encode(any())).thenReturn("HASHED");
@@ -90,36 +91,76 @@ class UserServiceTests {
     void getUsersTest() {
         // GIVEN
         List<User> userList = List.of(testUser);
-        Pageable pageable = PageRequest.of(0, 50);
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(50);
 
-        Page<User> results;
+        Slice<User> results;
 
-        when(repository.findAll(any(Pageable.class)))
-                .thenReturn(new PageImpl<>(userList));
+        when(repository.findAllByIdGreaterThanOrderById(any(), any()))
+                .thenReturn(new SliceImpl<>(userList));
         // WHEN
-        results = service.getUsers(null, pageable).join();
+        results = service.getUsers(null, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAll(pageable);
+        verify(repository).findAllByIdGreaterThanOrderById(afterId, pageable);
         assertThat(results).containsExactly(testUser);
     }
 
     @Test
     void getUsersWithSearchTest() {
         // GIVEN
-        String nameSearch = "test search";
+        String search = " test \"search\" ";
         List<User> userList = List.of(testUser);
-        Pageable pageable = PageRequest.of(0, 50);
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(50);
 
-        Page<User> results;
+        Slice<User> results;
 
-        when(repository.findAllByDisplayNameContainingIgnoreCase(any(), any()))
-                .thenReturn(new PageImpl<>(userList));
+        when(repository.findAllMatchingAfterId(any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(userList));
         // WHEN
-        results = service.getUsers(nameSearch, pageable).join();
+        results = service.getUsers(search, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAllByDisplayNameContainingIgnoreCase(nameSearch, pageable);
+        verify(repository).findAllMatchingAfterId("\"test  search \"", "test \"search\"%", afterId, pageable);
+        verify(repository, never()).findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById(any(), any(), any());
+        assertThat(results).containsExactly(testUser);
+    }
+
+    @Test
+    void getUsersWithEmailSearchTest() {
+        // GIVEN
+        String search = "John_Doe%@";
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(50);
+
+        when(repository.findAllMatchingAfterId(any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        // WHEN
+        service.getUsers(search, afterId, pageable).join();
+
+        // THEN
+        verify(repository).findAllMatchingAfterId("\"John_Doe%@\"", "john\\_doe\\%@%", afterId, pageable);
+    }
+
+    @Test
+    void getUsersWithShortSearchTest() {
+        // GIVEN
+        String search = " j ";
+        List<User> userList = List.of(testUser);
+        long afterId = 0L;
+        Pageable pageable = PageRequest.ofSize(50);
+
+        Slice<User> results;
+
+        when(repository.findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById(any(), any(), any()))
+                .thenReturn(new SliceImpl<>(userList));
+        // WHEN
+        results = service.getUsers(search, afterId, pageable).join();
+
+        // THEN
+        verify(repository).findAllByDisplayNameContainingIgnoreCaseAndIdGreaterThanOrderById("j", afterId, pageable);
+        verify(repository, never()).findAllMatchingAfterId(any(), any(), any(), any());
         assertThat(results).containsExactly(testUser);
     }
 
@@ -571,7 +612,7 @@ class UserServiceTests {
     void hashUserPasswordTest() {
         // GIVEN
         BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        service = new UserService(repository, passwordEncoder);
+        service = new UserService(repository, passwordEncoder, new ModelMapperConfig().updateMapper());
         String rawPassword = testUser.getPassword();
         String resultPassword;
 
@@ -0,0 +1,81 @@
+package fr.backendt.cinephobia.services;
+
+import fr.backendt.cinephobia.models.MediaType;
+import fr.backendt.cinephobia.models.MediaWarnSummary;
+import fr.backendt.cinephobia.models.Trigger;
+import fr.backendt.cinephobia.models.Warn;
+import fr.backendt.cinephobia.repositories.MediaWarnSummaryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(WarnService.class)
+class WarnServiceStatementsTests { // Statements actually sent for each warn change, summary upkeep included
+
+    @Autowired
+    private WarnService service;
+
+    @Autowired
+    private MediaWarnSummaryRepository summaryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void initTests() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void updateOwnedWarnStatementsTest() {
+        // GIVEN
+        long warnId = 1L;
+        long ownerId = 1L;
+        Warn update = new Warn(new Trigger(1L, null, null), null, null, null, 4);
+        List<MediaWarnSummary> summaries;
+
+        // WHEN
+        service.updateWarnIfOwnedByUser(warnId, update, ownerId).join();
+        long statements = statistics.getPrepareStatementCount();
+        summaries = summaryRepository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE);
+
+        // THEN
+        assertThat(statements).isEqualTo(3); // Summary subtract, warn update, summary add
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getTrigger().getId()).isEqualTo(1L);
+        assertThat(summaries.get(0).getMaxExpositionLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void deleteOwnedWarnStatementsTest() {
+        // GIVEN
+        long warnId = 1L;
+        long ownerId = 1L;
+        List<MediaWarnSummary> summaries;
+
+        // WHEN
+        service.deleteWarnIfOwnedByUser(warnId, ownerId).join();
+        long statements = statistics.getPrepareStatementCount();
+        summaries = summaryRepository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(1L, MediaType.MOVIE);
+
+        // THEN
+        assertThat(statements).isEqualTo(2); // Summary subtract, warn delete
+        assertThat(summaries).isEmpty();
+    }
+
+}
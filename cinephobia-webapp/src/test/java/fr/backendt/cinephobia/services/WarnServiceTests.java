@@ -3,14 +3,21 @@ package fr.backendt.cinephobia.services;
 import fr.backendt.cinephobia.exceptions.BadRequestException;
 import fr.backendt.cinephobia.exceptions.EntityNotFoundException;
 import fr.backendt.cinephobia.models.*;
+import fr.backendt.cinephobia.models.dto.WarnResponseDTO;
+import fr.backendt.cinephobia.repositories.MediaWarnSummaryRepository;
+import fr.backendt.cinephobia.repositories.TriggerRepository;
+import fr.backendt.cinephobia.repositories.UserRepository;
 import fr.backendt.cinephobia.repositories.WarnRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
@@ -22,9 +29,13 @@ import static org.mockito.Mockito.*;
 class WarnServiceTests {
 
     private WarnRepository repository;
+    private MediaWarnSummaryRepository summaryRepository;
+    private TriggerRepository triggerRepository;
+    private UserRepository userRepository;
     private WarnService service;
 
     private Warn testWarn;
+    private WarnResponseDTO testResponseDTO;
     private Trigger testTrigger;
     private Media testMedia;
     private User testUser;
@@ -32,12 +43,16 @@ class WarnServiceTests {
     @BeforeEach
     void initTests() {
         repository = Mockito.mock(WarnRepository.class);
-        service = new WarnService(repository);
+        summaryRepository = Mockito.mock(MediaWarnSummaryRepository.class);
+        triggerRepository = Mockito.mock(TriggerRepository.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        service = new WarnService(repository, summaryRepository, triggerRepository, userRepository);
 
         testTrigger = new Trigger(1L, "Testphobia", "Fear of unit tests failing");
         testMedia = new Media(1234L, MediaType.MOVIE, "1234 Movie", "The 1234 Movie", "https://1234.com/poster");
         testUser = new User(2L, "Jane Doe", "jane.doe@test.com", "myPassword1234", "USER");
         testWarn = new Warn(testTrigger, testUser, testMedia, 9);
+        testResponseDTO = new WarnResponseDTO(1L, testMedia.getId(), testMedia.getType(), testTrigger.getId(), testTrigger.getName(), testTrigger.getDescription(), 9);
     }
 
     @Test
@@ -48,19 +63,19 @@ class WarnServiceTests {
         Long mediaId = testMedia.getId();
         MediaType mediaType = testMedia.getType();
 
-        boolean alreadyExists = false;
-
         Warn result;
 
-        when(repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any()))
-                .thenReturn(alreadyExists);
-        when(repository.save(any())).thenReturn(testWarn);
+        when(triggerRepository.getReferenceById(any())).thenReturn(testTrigger);
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+        when(repository.saveAndFlush(any())).thenReturn(testWarn);
         // WHEN
         result = service.createWarn(testWarn).join();
 
         // THEN
-        verify(repository).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(warnUserId, triggerId, mediaId, mediaType);
-        verify(repository).save(testWarn);
+        verify(triggerRepository).getReferenceById(triggerId);
+        verify(userRepository).getReferenceById(warnUserId);
+        verify(repository).saveAndFlush(testWarn);
+        verify(summaryRepository).addWarn(mediaId, mediaType.name(), triggerId, testWarn.getExpositionLevel());
 
         assertThat(result).isEqualTo(testWarn);
     }
@@ -68,23 +83,55 @@ class WarnServiceTests {
     @Test
     void createDuplicateWarnTest() {
         // GIVEN
-        Long warnUserId = testUser.getId();
-        Long triggerId = testTrigger.getId();
-        Long mediaId = testMedia.getId();
-        MediaType mediaType = testMedia.getType();
+        ConstraintViolationException violation = new ConstraintViolationException("Duplicate entry", new SQLException(), "warn.UC_Warn");
+
+        when(triggerRepository.getReferenceById(any())).thenReturn(testTrigger);
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry", violation));
+        // WHEN
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.createWarn(testWarn))
+                .withMessage("Warn already exists");
+
+        // THEN
+        verify(repository).saveAndFlush(testWarn);
+        verify(summaryRepository, never()).addWarn(any(), any(), any(), anyInt());
+    }
 
-        boolean alreadyExists = true;
+    @Test
+    void createWarnWithUnknownTriggerTest() {
+        // GIVEN
+        ConstraintViolationException violation = new ConstraintViolationException("Foreign key fails",
+                new SQLException("Cannot add or update a child row: a foreign key constraint fails (`cinephobia`.`warn`, CONSTRAINT `FK_Warn_Trigger` FOREIGN KEY (`trigger_id`) REFERENCES `trigger` (`id`))"), "FK_Warn_Trigger");
 
-        when(repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any()))
-                .thenReturn(alreadyExists);
+        when(triggerRepository.getReferenceById(any())).thenReturn(testTrigger);
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("Foreign key fails", violation));
         // WHEN
-        assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.createWarn(testWarn).join())
-                .withCauseExactlyInstanceOf(BadRequestException.class);
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.createWarn(testWarn))
+                .withMessage(WarnService.UNKNOWN_TRIGGER_MESSAGE);
+
+        // THEN
+        verify(summaryRepository, never()).addWarn(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void createWarnWithUnknownUserTest() {
+        // GIVEN
+        ConstraintViolationException violation = new ConstraintViolationException("Foreign key fails",
+                new SQLException("Cannot add or update a child row: a foreign key constraint fails (`cinephobia`.`warn`, CONSTRAINT `FK_Warn_User` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`))"), "FK_Warn_User");
+
+        when(triggerRepository.getReferenceById(any())).thenReturn(testTrigger);
+        when(userRepository.getReferenceById(any())).thenReturn(testUser);
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("Foreign key fails", violation));
+        // WHEN
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.createWarn(testWarn))
+                .withMessage("User does not exist");
 
         // THEN
-        verify(repository).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(warnUserId, triggerId, mediaId, mediaType);
-        verify(repository, never()).save(testWarn);
+        verify(summaryRepository, never()).addWarn(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -92,38 +139,40 @@ class WarnServiceTests {
         // GIVEN
         long mediaId = 1234L;
         MediaType mediaType = MediaType.MOVIE;
+        long afterId = 0L;
         Pageable pageable = Pageable.unpaged();
 
-        Page<Warn> warns = new PageImpl<>(List.of(testWarn));
-        Page<Warn> result;
+        Slice<WarnResponseDTO> warns = new SliceImpl<>(List.of(testResponseDTO));
+        Slice<WarnResponseDTO> result;
 
-        when(repository.findAllByMediaIdAndMediaType(any(), any(), any()))
+        when(repository.findResponsesByMedia(any(), any(), any(), any()))
                 .thenReturn(warns);
 
         // WHEN
-        result = service.getWarnsForMedia(mediaId, mediaType, pageable).join();
+        result = service.getWarnsForMedia(mediaId, mediaType, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAllByMediaIdAndMediaType(mediaId, mediaType, pageable);
-        assertThat(result).containsExactly(testWarn);
+        verify(repository).findResponsesByMedia(mediaId, mediaType, afterId, pageable);
+        assertThat(result).containsExactly(testResponseDTO);
     }
 
     @Test
     void getWarnsForUserTest() {
         // GIVEN
-        String userEmail = "user@test.com";
+        Long userId = testUser.getId();
+        long afterId = 0L;
         Pageable pageable = Pageable.unpaged();
 
-        Page<Warn> warns = new PageImpl<>(List.of(testWarn));
+        Slice<WarnResponseDTO> warns = new SliceImpl<>(List.of(testResponseDTO));
 
-        Page<Warn> results;
-        when(repository.findAllByUserEmail(any(), any())).thenReturn(warns);
+        Slice<WarnResponseDTO> results;
+        when(repository.findResponsesByUserId(any(), any(), any())).thenReturn(warns);
         // WHEN
-        results = service.getWarnsForUser(userEmail, pageable).join();
+        results = service.getWarnsForUser(userId, afterId, pageable).join();
 
         // THEN
-        verify(repository).findAllByUserEmail(userEmail, pageable);
-        assertThat(results).containsExactly(testWarn);
+        verify(repository).findResponsesByUserId(userId, afterId, pageable);
+        assertThat(results).containsExactly(testResponseDTO);
     }
 
     @Test
@@ -168,21 +217,15 @@ class WarnServiceTests {
         int newExpositionLevel = 5;
         Warn warnUpdate = new Warn(null, null, null, null, newExpositionLevel);
 
-        Warn expectedWarn = new Warn(testWarn);
-        expectedWarn.setExpositionLevel(newExpositionLevel);
-
-        Warn result;
-
-        when(repository.findById(any())).thenReturn(Optional.of(testWarn));
-        when(repository.save(any())).thenReturn(expectedWarn);
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt())).thenReturn(1);
         // WHEN
-        result = service.updateWarn(warnId, warnUpdate).join();
+        service.updateWarn(warnId, warnUpdate).join();
 
         // THEN
-        verify(repository).findById(warnId);
-        verify(repository, never()).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any());
-        verify(repository).save(expectedWarn);
-        assertThat(result).isEqualTo(expectedWarn);
+        verify(repository).updateWarn(warnId, null, null, null, null, newExpositionLevel);
+        verify(repository, never()).findById(any());
+        verify(summaryRepository).removeWarn(warnId, null);
+        verify(summaryRepository).addWarnById(warnId);
     }
 
     @Test
@@ -192,7 +235,7 @@ class WarnServiceTests {
         int newExpositionLevel = 5;
         Warn warnUpdate = new Warn(null, null, null, null, newExpositionLevel);
 
-        when(repository.findById(any())).thenReturn(Optional.empty());
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt())).thenReturn(0);
         // WHEN
 
         assertThatExceptionOfType(CompletionException.class)
@@ -200,9 +243,8 @@ class WarnServiceTests {
                 .withCauseExactlyInstanceOf(EntityNotFoundException.class);
 
         // THEN
-        verify(repository).findById(warnId);
-        verify(repository, never()).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any());
-        verify(repository, never()).save(any());
+        verify(repository).updateWarn(warnId, null, null, null, null, newExpositionLevel);
+        verify(summaryRepository, never()).addWarnById(any());
     }
 
     @Test
@@ -211,33 +253,16 @@ class WarnServiceTests {
         long warnId = 1L;
         long newMediaId = 4321L;
         int newExpositionLevel = 5;
-        Warn warnUpdate = new Warn(null, null, newMediaId, null, newExpositionLevel);
-
-        Long currentUserId = testUser.getId();
-        Long currentTriggerId = testTrigger.getId();
-        MediaType currentMediaType = testWarn.getMediaType();
-
-        boolean newWarnAlreadyExists = false;
-
-        Warn expectedWarn = new Warn(testWarn);
-        expectedWarn.setExpositionLevel(newExpositionLevel);
-        expectedWarn.setMediaId(newMediaId);
-
-        Warn result;
+        Warn warnUpdate = new Warn(testTrigger, null, newMediaId, MediaType.TV, newExpositionLevel);
 
-        when(repository.findById(any())).thenReturn(Optional.of(testWarn));
-        when(repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any()))
-                .thenReturn(newWarnAlreadyExists);
-        when(repository.save(any())).thenReturn(expectedWarn);
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt())).thenReturn(1);
         // WHEN
 
-        result = service.updateWarn(warnId, warnUpdate).join();
+        service.updateWarn(warnId, warnUpdate).join();
 
         // THEN
-        verify(repository).findById(warnId);
-        verify(repository).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(currentUserId, currentTriggerId, newMediaId, currentMediaType);
-        verify(repository).save(expectedWarn);
-        assertThat(result).isEqualTo(expectedWarn);
+        verify(repository).updateWarn(warnId, null, testTrigger.getId(), newMediaId, MediaType.TV.name(), newExpositionLevel);
+        verify(summaryRepository).addWarnById(warnId);
     }
 
     @Test
@@ -248,30 +273,19 @@ class WarnServiceTests {
         int newExpositionLevel = 5;
         Warn warnUpdate = new Warn(null, null, newMediaId, null, newExpositionLevel);
 
-        Long currentUserId = testUser.getId();
-        Long currentTriggerId = testTrigger.getId();
-        MediaType currentMediaType = testWarn.getMediaType();
-
-        boolean newWarnAlreadyExists = true;
+        ConstraintViolationException violation = new ConstraintViolationException("Duplicate entry", new SQLException(), "warn.UC_Warn");
 
-        Warn expectedWarn = new Warn(testWarn);
-        expectedWarn.setExpositionLevel(newExpositionLevel);
-        expectedWarn.setMediaId(newMediaId);
-
-        when(repository.findById(any())).thenReturn(Optional.of(testWarn));
-        when(repository.existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any()))
-                .thenReturn(newWarnAlreadyExists);
-        when(repository.save(any())).thenReturn(expectedWarn);
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry", violation));
         // WHEN
 
-        assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.updateWarn(warnId, warnUpdate).join())
-                .withCauseExactlyInstanceOf(BadRequestException.class);
+        assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.updateWarn(warnId, warnUpdate))
+                .withMessage("Warn already exists");
 
         // THEN
-        verify(repository).findById(warnId);
-        verify(repository).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(currentUserId, currentTriggerId, newMediaId, currentMediaType);
-        verify(repository, never()).save(any());
+        verify(repository).updateWarn(warnId, null, null, newMediaId, null, newExpositionLevel);
+        verify(summaryRepository, never()).addWarnById(any());
     }
 
     @Test
@@ -281,26 +295,16 @@ class WarnServiceTests {
         int newExpositionLevel = 5;
         Warn warnUpdate = new Warn(null, null, null, null, newExpositionLevel);
 
-        String ownerEmail = testUser.getEmail();
-        boolean isOwnedByUser = true;
-
-        Warn expectedWarn = new Warn(testWarn);
-        expectedWarn.setExpositionLevel(newExpositionLevel);
-
-        Warn result;
+        Long ownerId = testUser.getId();
 
-        when(repository.existsByIdAndUserEmail(any(), any())).thenReturn(isOwnedByUser);
-        when(repository.findById(any())).thenReturn(Optional.of(testWarn));
-        when(repository.save(any())).thenReturn(expectedWarn);
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt())).thenReturn(1);
         // WHEN
-        result = service.updateWarnIfOwnedByUser(warnId, warnUpdate, ownerEmail).join();
+        service.updateWarnIfOwnedByUser(warnId, warnUpdate, ownerId).join();
 
         // THEN
-        verify(repository).existsByIdAndUserEmail(warnId, ownerEmail);
-        verify(repository).findById(warnId);
-        verify(repository, never()).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any());
-        verify(repository).save(expectedWarn);
-        assertThat(result).isEqualTo(expectedWarn);
+        verify(summaryRepository).removeWarn(warnId, ownerId);
+        verify(repository).updateWarn(warnId, ownerId, null, null, null, newExpositionLevel);
+        verify(summaryRepository).addWarnById(warnId);
     }
 
     @Test
@@ -310,92 +314,108 @@ class WarnServiceTests {
         int newExpositionLevel = 5;
         Warn warnUpdate = new Warn(null, null, null, null, newExpositionLevel);
 
-        String ownerEmail = testUser.getEmail();
-        boolean isOwnedByUser = false;
+        Long ownerId = testUser.getId();
 
-        Warn expectedWarn = new Warn(testWarn);
-        expectedWarn.setExpositionLevel(newExpositionLevel);
-
-        when(repository.existsByIdAndUserEmail(any(), any())).thenReturn(isOwnedByUser);
-        when(repository.findById(any())).thenReturn(Optional.of(testWarn));
-        when(repository.save(any())).thenReturn(expectedWarn);
+        when(repository.updateWarn(any(), any(), any(), any(), any(), anyInt())).thenReturn(0);
         // WHEN
 
         assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.updateWarnIfOwnedByUser(warnId, warnUpdate, ownerEmail).join())
+                .isThrownBy(() -> service.updateWarnIfOwnedByUser(warnId, warnUpdate, ownerId).join())
                 .withCauseExactlyInstanceOf(EntityNotFoundException.class);
 
         // THEN
-        verify(repository).existsByIdAndUserEmail(warnId, ownerEmail);
-        verify(repository, never()).findById(warnId);
-        verify(repository, never()).existsByUserIdAndTriggerIdAndMediaIdAndMediaType(any(), any(), any(), any());
-        verify(repository, never()).save(any());
+        verify(repository).updateWarn(warnId, ownerId, null, null, null, newExpositionLevel);
+        verify(summaryRepository, never()).addWarnById(any());
     }
 
     @Test
     void deleteWarnTest() {
         // GIVEN
         long warnId = 1L;
-        boolean warnExists = true;
 
-        when(repository.existsById(any())).thenReturn(warnExists);
+        when(repository.deleteWarn(any(), any())).thenReturn(1);
         // WHEN
         service.deleteWarn(warnId).join();
 
         // THEN
-        verify(repository).existsById(warnId);
-        verify(repository).deleteById(warnId);
+        verify(summaryRepository).removeWarn(warnId, null);
+        verify(repository).deleteWarn(warnId, null);
+        verify(repository, never()).deleteById(any());
     }
 
     @Test
     void deleteUnknownWarnTest() {
         // GIVEN
         long warnId = 1L;
-        boolean warnExists = false;
 
-        when(repository.existsById(any())).thenReturn(warnExists);
+        when(repository.deleteWarn(any(), any())).thenReturn(0);
         // WHEN
         assertThatExceptionOfType(CompletionException.class)
                 .isThrownBy(() -> service.deleteWarn(warnId).join())
                 .withCauseExactlyInstanceOf(EntityNotFoundException.class);
 
         // THEN
-        verify(repository).existsById(warnId);
-        verify(repository, never()).deleteById(any());
+        verify(repository).deleteWarn(warnId, null);
     }
 
     @Test
     void deleteWarnIfOwnedByUserTest() {
         // GIVEN
         long warnId = 1L;
-        String ownerEmail = testUser.getEmail();
-        boolean warnExists = true;
+        Long ownerId = testUser.getId();
 
-        when(repository.existsByIdAndUserEmail(any(), any())).thenReturn(warnExists);
+        when(repository.deleteWarn(any(), any())).thenReturn(1);
         // WHEN
-        service.deleteWarnIfOwnedByUser(warnId, ownerEmail).join();
+        service.deleteWarnIfOwnedByUser(warnId, ownerId).join();
 
         // THEN
-        verify(repository).existsByIdAndUserEmail(warnId, ownerEmail);
-        verify(repository).deleteById(warnId);
+        verify(summaryRepository).removeWarn(warnId, ownerId);
+        verify(repository).deleteWarn(warnId, ownerId);
     }
 
     @Test
     void deleteUnknownWarnIfOwnedByUserTest() {
         // GIVEN
         long warnId = 1L;
-        String ownerEmail = testUser.getEmail();
-        boolean warnExists = false;
+        Long ownerId = testUser.getId();
 
-        when(repository.existsByIdAndUserEmail(any(), any())).thenReturn(warnExists);
+        when(repository.deleteWarn(any(), any())).thenReturn(0);
         // WHEN
         assertThatExceptionOfType(CompletionException.class)
-                .isThrownBy(() -> service.deleteWarnIfOwnedByUser(warnId, ownerEmail).join())
+                .isThrownBy(() -> service.deleteWarnIfOwnedByUser(warnId, ownerId).join())
                 .withCauseExactlyInstanceOf(EntityNotFoundException.class);
 
         // THEN
-        verify(repository).existsByIdAndUserEmail(warnId, ownerEmail);
-        verify(repository, never()).deleteById(any());
+        verify(repository).deleteWarn(warnId, ownerId);
+    }
+
+    @Test
+    void getWarnSummariesTest() {
+        // GIVEN
+        long mediaId = testMedia.getId();
+        MediaType mediaType = testMedia.getType();
+        MediaWarnSummary summary = new MediaWarnSummary(mediaId, mediaType, testTrigger.getId(), testTrigger, 1, 9, 9);
+
+        List<MediaWarnSummary> results;
+
+        when(summaryRepository.findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(any(), any())).thenReturn(List.of(summary));
+        // WHEN
+        results = service.getWarnSummaries(mediaId, mediaType).join();
+
+        // THEN
+        verify(summaryRepository).findAllByMediaIdAndMediaTypeOrderByWarnCountDesc(mediaId, mediaType);
+        assertThat(results).containsExactly(summary);
+    }
+
+    @Test
+    void rebuildWarnSummariesTest() {
+        // GIVEN
+        // WHEN
+        service.rebuildWarnSummaries();
+
+        // THEN
+        verify(summaryRepository).deleteAllSummaries();
+        verify(summaryRepository).insertAllSummaries();
     }
 
 }
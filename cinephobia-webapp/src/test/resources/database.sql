@@ -1,3 +1,4 @@
+/* Baseline schema (version 1), migrated by Flyway when the tests start */
 CREATE TABLE IF NOT EXISTS triggr(
     id BIGINT NOT NULL AUTO_INCREMENT,
     name VARCHAR(30) NOT NULL UNIQUE,
@@ -37,4 +38,4 @@ CREATE TABLE IF NOT EXISTS warn(
 INSERT INTO triggr(name, description) VALUES ('Testphobia', 'Fear of unit tests failing'), ('Bugphobia', 'Fear of software bugs');
 INSERT INTO users(display_name, email, password, role) VALUES ('John Doe', 'john.doe@test.com', 'John1234', 'USER'), ('Jane Doe', 'jane.doe@test.com', 'Jane1234', 'USER');
 INSERT INTO warn(trigger_id, user_id, media_id, media_type, exposition_level) VALUES (2, 1, 1, 'MOVIE', 9);
-INSERT INTO users_triggers(user_id, trigger_id) VALUES (2, 2);
\ No newline at end of file
+INSERT INTO users_triggers(user_id, trigger_id) VALUES (2, 2);
@@ -0,0 +1,3 @@
+/* Test rows for tables created by migrations, run by Flyway after each migrate */
+INSERT IGNORE INTO media_warn_summary(media_id, media_type, trigger_id, warn_count, exposition_total, max_exposition_level) VALUES (1, 'MOVIE', 2, 1, 9, 9);
+INSERT IGNORE INTO media(id, type, title, overview, poster_path, updated_at) VALUES (1, 'MOVIE', 'Testmovie', 'A movie about unit tests', '/testmovie.jpg', '2023-01-01 00:00:00');